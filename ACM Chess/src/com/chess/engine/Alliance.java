@@ -1,5 +1,10 @@
 package com.chess.engine; //<- The package means where it's going to be in when creating a class.
 
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.player.BlackPlayer;
+import com.chess.engine.player.Player;
+import com.chess.engine.player.WhitePlayer;
+
 //An enum that's based on what team the player is on. Can either be White or Black.
 public enum Alliance {
 
@@ -27,7 +32,7 @@ public enum Alliance {
 
         @Override
         public boolean isPawnPromotionSquare(final int position) {
-            return BoardUtils.INSTANCE.FIRST_ROW.get(position);
+            return (BoardUtils.ROW_MASKS[0] & (1L << position)) != 0;
         }
 
         //This will choose the white player.
@@ -98,7 +103,7 @@ public enum Alliance {
         //Checks if that tile is a pawn promotion tile.
         @Override
         public boolean isPawnPromotionSquare(final int position) {
-            return BoardUtils.INSTANCE.EIGHTH_ROW.get(position);
+            return (BoardUtils.ROW_MASKS[7] & (1L << position)) != 0;
         }
 
         //The black alliance will choose the black player.
@@ -0,0 +1,65 @@
+package com.chess.engine.board;
+
+import java.lang.management.ManagementFactory;
+
+/*This is the AllocationMeter enum. It tells how many bytes of memory making one Board takes, by playing every legal move of a
+few boards over and over and asking the JVM how much the current thread has allocated in the meantime. Making boards is what the
+AI does most, so this is the number to watch when changing how a Board is built. Run it as a program to print the numbers.
+
+Counting the bytes a thread allocates needs the HotSpot version of ThreadMXBean (com.sun.management); on a JVM without it the
+meter says it can't measure instead of giving a wrong number.*/
+public enum AllocationMeter {
+
+    INSTANCE;
+
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    /*The average number of bytes allocated to make one board from the given one: every legal move of the current player is
+    executed, for the given number of rounds. Returns -1 if the JVM can't count allocated bytes. The legal moves are worked out
+    before the counting starts, so only building the boards is measured.*/
+    public static long bytesPerBoard(final Board board,
+                                     final int rounds) {
+        final java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        final Move[] moves = board.currentPlayer().getLegalMoves().toArray(new Move[0]);
+        if (moves.length == 0) {
+            return 0;
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long start = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < rounds; round++) {
+            for (final Move move : moves) {
+                move.execute();
+            }
+        }
+        final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - start;
+        return allocated / ((long) rounds * moves.length);
+    }
+
+    //Prints the bytes per board for the starting position and for the boards after a few moves.
+    public static void main(final String[] args) {
+        Board board = Board.createStandardBoard();
+        for (int ply = 0; ply <= 6; ply++) {
+            bytesPerBoard(board, WARM_UP_ROUNDS);
+            final long bytes = bytesPerBoard(board, MEASURED_ROUNDS);
+            if (bytes < 0) {
+                System.out.println("This JVM can't count the bytes a thread allocates.");
+                return;
+            }
+            System.out.println("ply " + ply + ": " + bytes + " bytes per board");
+            if (board.currentPlayer().getLegalMoves().isEmpty()) {
+                return;
+            }
+            board = board.currentPlayer().getLegalMoves().iterator().next().execute();
+        }
+    }
+
+}
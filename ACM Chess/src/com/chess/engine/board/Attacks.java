@@ -0,0 +1,208 @@
+package com.chess.engine.board;
+
+import static com.chess.engine.board.BoardUtils.NUM_TILES;
+import static com.chess.engine.board.BoardUtils.NUM_TILES_PER_ROW;
+
+import com.chess.engine.Alliance;
+
+/*This is the Attacks enum. It holds attack tables that are built once, when the class is loaded, so a piece never has to walk
+the board to find out which tiles it attacks. Everything here works on bitboards (see Position), where bit N stands for tile N.
+
+Sliding pieces (bishops, rooks and queens) use magic bitboards. For every tile we keep a mask of the tiles that can block the
+slider (the edge tiles are left out, a piece there can't block anything behind it). Multiplying the blockers that are actually on
+the board by the tile's magic number and shifting the result down gives a perfect hash of those blockers, which is used as an index
+into a table of precomputed attack sets. So a slider's attack set is an and, a multiply, a shift and one table lookup. The magic
+numbers below were found by a random search and are checked against the slow ray walk while the tables are built.
+
+Knights, kings and pawns don't slide, so they only need one attack set per tile (and per alliance for pawns, since white pawns
+attack up the board and black pawns attack down). Those tables are built by stepping from every tile by the piece's column and
+row offsets and keeping the steps that stay on the board, so no column exclusions are needed when the tables are used.*/
+public enum Attacks {
+
+    INSTANCE;
+
+    //Column and row steps of the rook and bishop rays.
+    private static final int[][] ROOK_DIRECTIONS = { {1, 0}, {-1, 0}, {0, 1}, {0, -1} };
+    private static final int[][] BISHOP_DIRECTIONS = { {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
+
+    private static final int[][] KNIGHT_STEPS = { {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2} };
+    private static final int[][] KING_STEPS = { {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1} };
+
+    private static final long[] KNIGHT_ATTACKS = createStepAttackTable(KNIGHT_STEPS);
+    private static final long[] KING_ATTACKS = createStepAttackTable(KING_STEPS);
+    //Indexed by alliance ordinal. White pawns capture towards row 0 (the eighth rank), black pawns towards row 7.
+    private static final long[][] PAWN_ATTACKS = {
+            createStepAttackTable(new int[][] { {-1, -1}, {1, -1} }),
+            createStepAttackTable(new int[][] { {-1, 1}, {1, 1} })
+    };
+
+    private static final long[] ROOK_MAGICS = {
+            0x2180048440003060L, 0x4240012000411000L, 0x0200082013820041L, 0x2080050800100080L,
+            0x0080040008008003L, 0x0200070200500834L, 0xE2800A0000800500L, 0x710000920044E100L,
+            0xC490800040008020L, 0x8000802000804008L, 0x0000808020001000L, 0x0001001000082100L,
+            0x0004808004000800L, 0x0003000884010022L, 0x1100808002000100L, 0x0022000102304084L,
+            0x0380228000944000L, 0x5000404010002000L, 0x0081050020004010L, 0x0040808008001000L,
+            0x0C94808008000400L, 0x9004004002010040L, 0x0001040002010810L, 0x003002001400A149L,
+            0x8080400080096280L, 0x00200040C000B000L, 0x1040200480100080L, 0x0041080480100181L,
+            0x0000500500280100L, 0x0020020080800400L, 0x3082008200010408L, 0x0400018A00005403L,
+            0x0400400082800030L, 0x8000201001400040L, 0x4010801000802000L, 0x0E02042012000840L,
+            0x1008040080800800L, 0x0490800200800400L, 0x8019020001010004L, 0x0804108062000401L,
+            0x0000804000208008L, 0x0000200050014000L, 0x3010002000808010L, 0x001000110B010020L,
+            0x004D000408010010L, 0x2102000508020010L, 0x0000129021040008L, 0x0050A05084020001L,
+            0x0000885200210200L, 0x0110024000200440L, 0x100100104E200100L, 0x0010008010080080L,
+            0x0002080080040280L, 0x0000020080040080L, 0x0210021008010400L, 0x8010010044008200L,
+            0x0000490010208001L, 0x0440004088201501L, 0x000E010840228112L, 0x0000080421001001L,
+            0x0202000820041002L, 0x0412008801100402L, 0x20801800903A2D04L, 0x00C0004400802102L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0820010418008021L, 0x0260416400808008L, 0x00C1870A00800002L, 0x0204242080042000L,
+            0x0001104100008000L, 0x0010882009080002L, 0x1024208410088011L, 0x50A2808810900441L,
+            0x0008880210024200L, 0x4000028801430602L, 0x2000094404108110L, 0x4428243046000090L,
+            0x0408040422020802L, 0x0098020110082200L, 0x0200408801501000L, 0x2080204042101000L,
+            0x082002C003840100L, 0x3C12009408881100L, 0x0120400400488201L, 0x0008428404000809L,
+            0x000C000080A06001L, 0x4001000201008200L, 0x4109000A08020200L, 0x0000421104208400L,
+            0x00900400CBA00400L, 0x0004020050320840L, 0x00803008480445C1L, 0x1210040000440008L,
+            0x0081010000104001L, 0x002800410A842043L, 0x4082041000808800L, 0x00010B1142004110L,
+            0x001008228008420AL, 0x0048421020028400L, 0xC800802400608800L, 0x0080110800240040L,
+            0x0024080200002008L, 0x8020008080030800L, 0x84A4009400060144L, 0x000C008189002400L,
+            0x0800842020000820L, 0x883080C808442022L, 0x2801001802000400L, 0xE000004200808800L,
+            0x010002020C004A00L, 0x4422409102002100L, 0x00200400920180A8L, 0x0011080208410088L,
+            0x0200680808080810L, 0x0A42020201040400L, 0x0C10002402081820L, 0x01A4810E84240120L,
+            0x080400081B041012L, 0x0200401408409004L, 0x48202001A2208040L, 0x1920014408809200L,
+            0x0080A40400845010L, 0x6000008088011004L, 0x0280300100889080L, 0x02210B0021841102L,
+            0x4000800008030400L, 0x8100100811300080L, 0x0210404908490040L, 0x0104305000410044L
+    };
+
+    private static final long[] ROOK_MASKS = new long[NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[NUM_TILES];
+    private static final int[] ROOK_OFFSETS = new int[NUM_TILES];
+    private static final long[] ROOK_ATTACKS =
+            createSlidingAttackTable(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS);
+
+    private static final long[] BISHOP_MASKS = new long[NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[NUM_TILES];
+    private static final long[] BISHOP_ATTACKS =
+            createSlidingAttackTable(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    //The tiles a pawn of the given alliance standing on the square attacks (the diagonals, not the tile in front of it).
+    public static long pawnAttacks(final Alliance alliance,
+                                   final int square) {
+        return PAWN_ATTACKS[alliance.ordinal()][square];
+    }
+
+    public static long rookAttacks(final int square,
+                                   final long occupied) {
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] +
+                            (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(final int square,
+                                     final long occupied) {
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] +
+                              (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(final int square,
+                                    final long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    private static long[] createStepAttackTable(final int[][] steps) {
+        final long[] attackTable = new long[NUM_TILES];
+        for (int square = 0; square < NUM_TILES; square++) {
+            for (final int[] step : steps) {
+                final int column = BoardUtils.getColumn(square) + step[0];
+                final int row = BoardUtils.getRow(square) + step[1];
+                if (isOnBoard(column, row)) {
+                    attackTable[square] |= 1L << (row * NUM_TILES_PER_ROW + column);
+                }
+            }
+        }
+        return attackTable;
+    }
+
+    /*Builds the attack table for one kind of slider. Every tile gets its own slice of the table, as big as the number of blocker
+    combinations on its mask. We go through every combination (the (subset - mask) & mask trick walks all subsets of the mask),
+    work out the attacks the slow way and store them at the index the magic number hashes the combination to. Two different
+    attack sets landing on the same index means the magic number is bad, which should never happen.*/
+    private static long[] createSlidingAttackTable(final int[][] directions,
+                                                   final long[] magics,
+                                                   final long[] masks,
+                                                   final int[] shifts,
+                                                   final int[] offsets) {
+        int tableSize = 0;
+        for (int square = 0; square < NUM_TILES; square++) {
+            masks[square] = calculateBlockerMask(square, directions);
+            shifts[square] = Long.SIZE - Long.bitCount(masks[square]);
+            offsets[square] = tableSize;
+            tableSize += 1 << Long.bitCount(masks[square]);
+        }
+        final long[] attackTable = new long[tableSize];
+        for (int square = 0; square < NUM_TILES; square++) {
+            long blockers = 0L;
+            do {
+                final int index = offsets[square] + (int) ((blockers * magics[square]) >>> shifts[square]);
+                final long attacks = calculateSlidingAttacks(square, blockers, directions);
+                if (attackTable[index] != 0L && attackTable[index] != attacks) {
+                    throw new RuntimeException("Should not reach here! bad magic number for tile " + square);
+                }
+                attackTable[index] = attacks;
+                blockers = (blockers - masks[square]) & masks[square];
+            } while (blockers != 0L);
+        }
+        return attackTable;
+    }
+
+    //Every tile along the rays that could hold a blocker. The last tile of each ray is left out.
+    private static long calculateBlockerMask(final int square,
+                                             final int[][] directions) {
+        long mask = 0L;
+        for (final int[] direction : directions) {
+            int column = BoardUtils.getColumn(square) + direction[0];
+            int row = BoardUtils.getRow(square) + direction[1];
+            while (isOnBoard(column + direction[0], row + direction[1])) {
+                mask |= 1L << (row * NUM_TILES_PER_ROW + column);
+                column += direction[0];
+                row += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    //The slow way: walk each ray one tile at a time until we fall off the board or hit a blocker (the blocker is attacked too).
+    private static long calculateSlidingAttacks(final int square,
+                                                final long blockers,
+                                                final int[][] directions) {
+        long attacks = 0L;
+        for (final int[] direction : directions) {
+            int column = BoardUtils.getColumn(square) + direction[0];
+            int row = BoardUtils.getRow(square) + direction[1];
+            while (isOnBoard(column, row)) {
+                final long tile = 1L << (row * NUM_TILES_PER_ROW + column);
+                attacks |= tile;
+                if ((blockers & tile) != 0L) {
+                    break;
+                }
+                column += direction[0];
+                row += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(final int column,
+                                     final int row) {
+        return column >= 0 && column < NUM_TILES_PER_ROW && row >= 0 && row < NUM_TILES_PER_ROW;
+    }
+
+}
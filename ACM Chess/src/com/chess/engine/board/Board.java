@@ -11,41 +11,78 @@ import com.chess.engine.pieces.Rook;
 import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 import java.util.*;
 
 public final class Board {
 
-    private final List<Tile> gameBoard;
-    private final Collection<Piece> whitePieces;
-    private final Collection<Piece> blackPieces;
+    private final Position position;
+    private final Tile[] gameBoard;
+    private final Piece[] whitePieces;
+    private final Piece[] blackPieces;
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     //
     private final Pawn enPassantPawn;
-    private final Move transitionMove;
+    //The moves that led here, without the boards they were played on (see BoardHistory).
+    private final BoardHistory history;
+    //The number of plies since the last capture or pawn move, for the fifty-move rule.
+    private final int halfmoveClock;
 
+    /*A builder either starts from nothing, or from the board a move is played on (see Builder(Board)). In the second case the
+    new board is derived from its parent: the parent's tiles and bitboards are copied and only the tiles the move touched are
+    changed, instead of placing every piece again.
+
+    Everything is kept in plain arrays: the builder's pieces, the tiles and the pieces of each side. The pieces of a side are
+    read off the tiles in the order of the side's bitboard, so no lists or maps are made on the way (see AllocationMeter).*/
     public Board(final Builder builder) {
-        this.gameBoard = createGameBoard(builder);
-        this.whitePieces = calculateActivePieces(builder, Alliance.WHITE);
-        this.blackPieces = calculateActivePieces(builder, Alliance.BLACK);
+        this.position = builder.parent == null ?
+                new Position(builder.boardConfig, builder.placedSquares, builder.nextMoveMaker, builder.enPassantPawn) :
+                new Position(builder.parent.position, builder.clearedSquares, builder.boardConfig, builder.placedSquares,
+                             builder.nextMoveMaker, builder.enPassantPawn);
+        this.gameBoard = builder.parent == null ? createGameBoard(builder) : deriveGameBoard(builder);
+        this.whitePieces = calculateActivePieces(this.gameBoard, this.position.getAlliancePieces(Alliance.WHITE));
+        this.blackPieces = calculateActivePieces(this.gameBoard, this.position.getAlliancePieces(Alliance.BLACK));
         this.enPassantPawn = builder.enPassantPawn;
-        final Collection<Move> whiteStandardMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardMoves = calculateLegalMoves(this.blackPieces);
-        this.whitePlayer = new WhitePlayer(this, whiteStandardMoves, blackStandardMoves);
-        this.blackPlayer = new BlackPlayer(this, whiteStandardMoves, blackStandardMoves);
+        //The players work out their legal moves when they are first asked for them, not here.
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
         this.currentPlayer = builder.nextMoveMaker.choosePlayerByAlliance(this.whitePlayer, this.blackPlayer);
-        this.transitionMove = builder.transitionMove != null ? builder.transitionMove : Move.NULL_MOVE;
+        this.history = calculateHistory(builder);
+        this.halfmoveClock = calculateHalfmoveClock(builder);
+    }
+
+    /*A board made by a move adds that move to the history of the board it was played on. Only the packed move is kept, not the
+    Move object, since that would keep the board before it alive, and that board the one before it, back to the first move.*/
+    private static BoardHistory calculateHistory(final Builder builder) {
+        final Board parent = builder.parent;
+        if (parent == null || builder.transitionMove == null) {
+            return BoardHistory.EMPTY;
+        }
+        return parent.history.append(parent.getZobristKey(), builder.transitionMove.encode(),
+                parent.currentPlayer().isInCheck());
+    }
+
+    //A capture or a pawn move can't be taken back, so it starts the count again. A board set up from scratch takes the count
+    //it was given (see Builder.setHalfmoveClock).
+    private static int calculateHalfmoveClock(final Builder builder) {
+        final Move transitionMove = builder.transitionMove;
+        if (builder.parent == null || transitionMove == null) {
+            return builder.halfmoveClock;
+        }
+        if (transitionMove.isAttack() || transitionMove.getMovedPiece().getPieceType().isPawn()) {
+            return 0;
+        }
+        return builder.parent.halfmoveClock + 1;
     }
 
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            final String tileText = prettyPrint(this.gameBoard.get(i));
+            final String tileText = prettyPrint(this.gameBoard[i]);
             builder.append(String.format("%3s", tileText));
             if ((i + 1) % 8 == 0) {
                 builder.append("\n");
@@ -62,16 +99,18 @@ public final class Board {
         return tile.toString();
     }
 
+    //The pieces are handed out as read-only views of the arrays, sorted by tile.
     public Collection<Piece> getBlackPieces() {
-        return this.blackPieces;
+        return Collections.unmodifiableList(Arrays.asList(this.blackPieces));
     }
 
     public Collection<Piece> getWhitePieces() {
-        return this.whitePieces;
+        return Collections.unmodifiableList(Arrays.asList(this.whitePieces));
     }
 
     public Iterable<Piece> getAllPieces() {
-        return Iterables.unmodifiableIterable(Iterables.concat(this.whitePieces, this.blackPieces));
+        return Iterables.unmodifiableIterable(Iterables.concat(Arrays.asList(this.whitePieces),
+                                                               Arrays.asList(this.blackPieces)));
     }
 
     public Iterable<Move> getAllLegalMoves() {
@@ -91,20 +130,94 @@ public final class Board {
         return this.currentPlayer;
     }
 
+    //The bitboards this board is built on. Engine code should query these masks, the tiles are kept for the GUI.
+    public Position getPosition() {
+        return this.position;
+    }
+
     public Tile getTile(final int coordinate) {
-        return this.gameBoard.get(coordinate);
+        return this.gameBoard[coordinate];
     }
 
     public List<Tile> getGameBoard() {
-        return this.gameBoard;
+        return Collections.unmodifiableList(Arrays.asList(this.gameBoard));
     }
 
     public Pawn getEnPassantPawn() {
         return this.enPassantPawn;
     }
 
-    public Move getTransitionMove() {
-        return this.transitionMove;
+    public BoardHistory getHistory() {
+        return this.history;
+    }
+
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    /*How many times this position was on the board before, with the same player to move. Only the boards since the last
+    capture or pawn move can be the same position, so only that many plies of the history are looked at, and only every second
+    one of them, the ones with the same player to move. The Zobrist keys are compared, not the boards.*/
+    public int getRepetitionCount() {
+        final long key = getZobristKey();
+        int repetitions = 0;
+        BoardHistory history = this.history;
+        for (int pliesBack = 1; pliesBack <= this.halfmoveClock && !history.isEmpty(); pliesBack++) {
+            if ((pliesBack & 1) == 0 && history.getZobristKey() == key) {
+                repetitions++;
+            }
+            history = history.getPrevious();
+        }
+        return repetitions;
+    }
+
+    //Whether the position was on the board before. A search can score this as a draw right away: if repeating is good for
+    //one side, it can repeat again.
+    public boolean isRepetition() {
+        return getRepetitionCount() > 0;
+    }
+
+    //The same position for the third time.
+    public boolean isDrawByRepetition() {
+        return getRepetitionCount() >= 2;
+    }
+
+    //Fifty moves by each player without a capture or a pawn move.
+    public boolean isDrawByFiftyMoveRule() {
+        return this.halfmoveClock >= BoardUtils.FIFTY_MOVE_RULE_PLIES;
+    }
+
+    public boolean isDrawByInsufficientMaterial() {
+        return this.position.isInsufficientMaterial();
+    }
+
+    //Whether the game is drawn by one of the rules above. Checkmate and stalemate are up to the player, see Player.getGameStatus.
+    public boolean isDraw() {
+        return isDrawByFiftyMoveRule() || isDrawByInsufficientMaterial() || isDrawByRepetition();
+    }
+
+    //The Zobrist key of the position, see ZobristKeys. Kept up to date move by move by Move.execute().
+    public long getZobristKey() {
+        return this.position.getZobristKey();
+    }
+
+    /*Two boards are equal when they hold the same position: the same pieces on the same tiles, the same player to move and the
+    same castling and en passant rights. How the position was reached doesn't matter.*/
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Board)) {
+            return false;
+        }
+        return this.position.isSamePosition(((Board) other).position);
+    }
+
+    @Override
+    public int hashCode() {
+        final long key = this.position.getZobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 
     public static Board createStandardBoard() {
@@ -149,46 +262,77 @@ public final class Board {
         return builder.build();
     }
 
-    private static List<Tile> createGameBoard(final Builder boardBuilder) {
+    private static Tile[] createGameBoard(final Builder boardBuilder) {
         final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            tiles[i] = Tile.createTile(i, boardBuilder.boardConfig.get(i));
+            tiles[i] = Tile.createTile(i, boardBuilder.boardConfig[i]);
         }
-        return ImmutableList.copyOf(tiles);
+        return tiles;
     }
 
-    private Collection<Move> calculateLegalMoves(final Collection<Piece> pieces) {
-        final List<Move> legalMoves = new ArrayList<>(35);
-        for (final Piece piece : pieces) {
-            legalMoves.addAll(piece.calculateLegalMoves(this));
+    //The parent's tiles, with the cleared tiles emptied and the placed pieces put down.
+    private static Tile[] deriveGameBoard(final Builder builder) {
+        final Tile[] tiles = builder.parent.gameBoard.clone();
+        long clearedSquares = builder.clearedSquares;
+        while (clearedSquares != 0) {
+            final int square = Long.numberOfTrailingZeros(clearedSquares);
+            tiles[square] = Tile.createTile(square, null);
+            clearedSquares &= clearedSquares - 1;
+        }
+        long placedSquares = builder.placedSquares;
+        while (placedSquares != 0) {
+            final int square = Long.numberOfTrailingZeros(placedSquares);
+            tiles[square] = Tile.createTile(square, builder.boardConfig[square]);
+            placedSquares &= placedSquares - 1;
         }
-        return ImmutableList.copyOf(legalMoves);
+        return tiles;
     }
 
-    private static Collection<Piece> calculateActivePieces(final Builder builder,
-                                                           final Alliance alliance) {
-        final List<Piece> activePieces = new ArrayList<>(16);
-        for (final Piece piece : builder.boardConfig.values()) {
-            if (piece.getPieceAllegiance() == alliance) {
-                activePieces.add(piece);
-            }
+    //The pieces standing on the tiles of one side's bitboard, sorted by tile.
+    private static Piece[] calculateActivePieces(final Tile[] tiles,
+                                                 final long alliancePieces) {
+        final Piece[] activePieces = new Piece[Long.bitCount(alliancePieces)];
+        long pieces = alliancePieces;
+        for (int i = 0; pieces != 0; i++) {
+            activePieces[i] = tiles[Long.numberOfTrailingZeros(pieces)].getPiece();
+            pieces &= pieces - 1;
         }
-        return ImmutableList.copyOf(activePieces);
+        return activePieces;
     }
 
     public static class Builder {
 
-        Map<Integer, Piece> boardConfig;
+        //The pieces put down by tile, and a bitboard of the tiles that have one.
+        final Piece[] boardConfig;
+        long placedSquares;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        int halfmoveClock;
+        final Board parent;
+        long clearedSquares;
 
         public Builder() {
-            this.boardConfig = new HashMap<>(33, 1.0f);
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+            this.parent = null;
+        }
+
+        /*A builder for the board that follows a move on the parent board. It starts out as a copy of the parent, so it only
+        needs to be told what the move changes: clearPiece for the tiles that are left empty and setPiece for the pieces that
+        are put down. Used by Move.execute().*/
+        Builder(final Board parent) {
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+            this.parent = parent;
         }
 
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            this.boardConfig[piece.getPiecePosition()] = piece;
+            this.placedSquares |= 1L << piece.getPiecePosition();
+            return this;
+        }
+
+        Builder clearPiece(final int coordinate) {
+            this.clearedSquares |= 1L << coordinate;
             return this;
         }
 
@@ -202,6 +346,12 @@ public final class Board {
             return this;
         }
 
+        //Only used for a board set up from scratch, like one read from a FEN string. Boards made by a move count on their own.
+        public Builder setHalfmoveClock(final int halfmoveClock) {
+            this.halfmoveClock = halfmoveClock;
+            return this;
+        }
+
         public Builder setMoveTransition(final Move transitionMove) {
             this.transitionMove = transitionMove;
             return this;
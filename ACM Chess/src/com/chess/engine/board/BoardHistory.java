@@ -0,0 +1,108 @@
+package com.chess.engine.board;
+
+/*This is the BoardHistory class. It remembers the moves that led to a board, newest first, without keeping the boards themselves.
+
+A board used to keep the Move that made it, and every Move keeps the Board it was made on, so the board of move 80 held on to
+all 79 boards before it, their tiles, pieces and move lists included. Now each board keeps one of these instead: a small
+linked list with, for every move played, the move packed into an int (see MoveEncoding), the Zobrist key of the board it was
+played on and whether the player making it was in check. That is enough for the things that look back over the game, and none
+of it points at a board, so old boards can be collected as soon as nothing else uses them.
+
+The list is also bounded. Boards after a move share the history of the board before them, and once a history holds
+2 * MAX_PLIES moves the next board starts from a copy of just the newest MAX_PLIES moves. The copy is made once per full
+history and kept on it, so all the boards a search makes from the same board share one copy instead of each making its own.
+Along one game line that is one copy every MAX_PLIES moves, and a history never keeps more than 2 * MAX_PLIES entries alive.
+
+This only bounds what the boards keep. The GUI's move log keeps every Move played, and every Move keeps the board it was made on
+(that's what undo goes back to), so the boards of a game played in the GUI stay alive as long as its move log does.*/
+public final class BoardHistory {
+
+    //The number of plies a history always remembers, once that many have been played. A draw by the fifty-move rule comes
+    //after 100 plies without a capture or a pawn move, so this covers every position that could still repeat.
+    public static final int MAX_PLIES = 128;
+
+    public static final BoardHistory EMPTY = new BoardHistory(0L, MoveEncoding.NULL_MOVE, false, 0, null);
+
+    private final long zobristKey;
+    private final int move;
+    private final boolean wasInCheck;
+    private final int length;
+    private final BoardHistory previous;
+    //The newest MAX_PLIES moves of a full history, made the first time a board is made from it. Only one is ever needed, so
+    //two threads making one at the same time is harmless.
+    private volatile BoardHistory compacted;
+
+    private BoardHistory(final long zobristKey,
+                         final int move,
+                         final boolean wasInCheck,
+                         final int length,
+                         final BoardHistory previous) {
+        this.zobristKey = zobristKey;
+        this.move = move;
+        this.wasInCheck = wasInCheck;
+        this.length = length;
+        this.previous = previous;
+    }
+
+    //The history of the board after the move is played on a board with this history.
+    public BoardHistory append(final long zobristKey,
+                               final int move,
+                               final boolean wasInCheck) {
+        final BoardHistory previous = this.length >= 2 * MAX_PLIES ? getCompacted() : this;
+        return new BoardHistory(zobristKey, move, wasInCheck, previous.length + 1, previous);
+    }
+
+    private BoardHistory getCompacted() {
+        BoardHistory compacted = this.compacted;
+        if (compacted == null) {
+            compacted = copyNewest(MAX_PLIES);
+            this.compacted = compacted;
+        }
+        return compacted;
+    }
+
+    //A fresh list with only the newest moves of this one.
+    private BoardHistory copyNewest(final int plies) {
+        final BoardHistory[] newest = new BoardHistory[plies];
+        BoardHistory entry = this;
+        for (int i = 0; i < plies; i++) {
+            newest[i] = entry;
+            entry = entry.previous;
+        }
+        BoardHistory copy = EMPTY;
+        for (int i = plies - 1; i >= 0; i--) {
+            copy = new BoardHistory(newest[i].zobristKey, newest[i].move, newest[i].wasInCheck, copy.length + 1, copy);
+        }
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    //The number of moves remembered. Not the number of moves played once the game gets long.
+    public int size() {
+        return this.length;
+    }
+
+    //The newest move, or MoveEncoding.NULL_MOVE for an empty history.
+    public int getMove() {
+        return this.move;
+    }
+
+    //The Zobrist key of the board the newest move was played on.
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    //Whether the player making the newest move was in check when making it.
+    public boolean wasInCheck() {
+        return this.wasInCheck;
+    }
+
+    //The moves before the newest one, or null for an empty history.
+    public BoardHistory getPrevious() {
+        return this.previous;
+    }
+
+}
@@ -7,54 +7,122 @@ import java.util.Map;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+/*This is the BoardUtils enum. Besides the tile names it holds the geometry of the board, all of it worked out once when the class
+is loaded and kept in plain arrays indexed by tile: the column, row and diagonals every tile is on, the distance between any two
+tiles, the rays going out of every tile in the eight directions, and the tiles between (and the line through) any two tiles that
+are lined up. Pieces, players and the AI look these up instead of working them out again with divisions and if-chains.
+
+Tiles are numbered like everywhere else: 0 is a8, 63 is h1, so row 0 is the eighth rank and column 0 is the a file.*/
 public enum  BoardUtils {
 
     INSTANCE;
 
-    public final List<Boolean> FIRST_COLUMN = initColumn(0);
-    public final List<Boolean> SECOND_COLUMN = initColumn(1);
-    public final List<Boolean> THIRD_COLUMN = initColumn(2);
-    public final List<Boolean> FOURTH_COLUMN = initColumn(3);
-    public final List<Boolean> FIFTH_COLUMN = initColumn(4);
-    public final List<Boolean> SIXTH_COLUMN = initColumn(5);
-    public final List<Boolean> SEVENTH_COLUMN = initColumn(6);
-    public final List<Boolean> EIGHTH_COLUMN = initColumn(7);
-    public final List<Boolean> FIRST_ROW = initRow(0);
-    public final List<Boolean> SECOND_ROW = initRow(8);
-    public final List<Boolean> THIRD_ROW = initRow(16);
-    public final List<Boolean> FOURTH_ROW = initRow(24);
-    public final List<Boolean> FIFTH_ROW = initRow(32);
-    public final List<Boolean> SIXTH_ROW = initRow(40);
-    public final List<Boolean> SEVENTH_ROW = initRow(48);
-    public final List<Boolean> EIGHTH_ROW = initRow(56);
     public final List<String> ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
     public final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
     public static final int START_TILE_INDEX = 0;
     public static final int NUM_TILES_PER_ROW = 8;
     public static final int NUM_TILES = 64;
+    //Fifty moves by each player is a hundred plies.
+    public static final int FIFTY_MOVE_RULE_PLIES = 100;
+    //Bitboard masks of every column (a to h) and row (row 0 is the eighth rank, like the tile numbering).
+    public static final long[] COLUMN_MASKS = initColumnMasks();
+    public static final long[] ROW_MASKS = initRowMasks();
+    //The light tiles (a8, c8, ..., h1), see isLightTile.
+    public static final long LIGHT_TILES_MASK = 0xAA55AA55AA55AA55L;
+
+    //The eight directions a ray can go in. North is towards row 0 (the eighth rank), east towards column 7 (the h file).
+    public static final int NORTH = 0;
+    public static final int NORTH_EAST = 1;
+    public static final int EAST = 2;
+    public static final int SOUTH_EAST = 3;
+    public static final int SOUTH = 4;
+    public static final int SOUTH_WEST = 5;
+    public static final int WEST = 6;
+    public static final int NORTH_WEST = 7;
+    public static final int NUM_DIRECTIONS = 8;
+    //Column and row steps of each direction, in the order above. A direction plus 4 is the opposite direction.
+    private static final int[][] DIRECTION_STEPS = { {0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1} };
+
+    public static final int NUM_DIAGONALS = 2 * NUM_TILES_PER_ROW - 1;
+
+    private static final int[] COLUMNS = new int[NUM_TILES];
+    private static final int[] ROWS = new int[NUM_TILES];
+    //Diagonals run from a1 to h8 and are numbered by row + column, anti-diagonals run from a8 to h1 and are numbered by
+    //row - column + 7. Both go from 0 to 14.
+    private static final int[] DIAGONALS = new int[NUM_TILES];
+    private static final int[] ANTI_DIAGONALS = new int[NUM_TILES];
+    public static final long[] DIAGONAL_MASKS = new long[NUM_DIAGONALS];
+    public static final long[] ANTI_DIAGONAL_MASKS = new long[NUM_DIAGONALS];
+
+    //Chebyshev distance is the number of king steps between two tiles, Manhattan distance the number of rook steps of one tile.
+    private static final int[][] CHEBYSHEV_DISTANCES = new int[NUM_TILES][NUM_TILES];
+    private static final int[][] MANHATTAN_DISTANCES = new int[NUM_TILES][NUM_TILES];
+
+    //RAYS[direction][tile] holds every tile from the tile (not included) to the edge of the board in that direction.
+    private static final long[][] RAYS = new long[NUM_DIRECTIONS][NUM_TILES];
+    //Indexed by two tiles. BETWEEN holds the tiles strictly between them and LINE the whole line through both (edge to edge),
+    //when they share a row, column or diagonal. Both are empty for tiles that aren't lined up.
+    private static final long[][] BETWEEN = new long[NUM_TILES][NUM_TILES];
+    private static final long[][] LINE = new long[NUM_TILES][NUM_TILES];
+
+    static {
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            COLUMNS[tile] = tile % NUM_TILES_PER_ROW;
+            ROWS[tile] = tile / NUM_TILES_PER_ROW;
+            DIAGONALS[tile] = ROWS[tile] + COLUMNS[tile];
+            ANTI_DIAGONALS[tile] = ROWS[tile] - COLUMNS[tile] + NUM_TILES_PER_ROW - 1;
+            DIAGONAL_MASKS[DIAGONALS[tile]] |= 1L << tile;
+            ANTI_DIAGONAL_MASKS[ANTI_DIAGONALS[tile]] |= 1L << tile;
+        }
+        for (int first = 0; first < NUM_TILES; first++) {
+            for (int second = 0; second < NUM_TILES; second++) {
+                final int columnDistance = Math.abs(COLUMNS[first] - COLUMNS[second]);
+                final int rowDistance = Math.abs(ROWS[first] - ROWS[second]);
+                CHEBYSHEV_DISTANCES[first][second] = Math.max(columnDistance, rowDistance);
+                MANHATTAN_DISTANCES[first][second] = columnDistance + rowDistance;
+            }
+        }
+        for (int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+            for (int tile = 0; tile < NUM_TILES; tile++) {
+                int column = COLUMNS[tile] + DIRECTION_STEPS[direction][0];
+                int row = ROWS[tile] + DIRECTION_STEPS[direction][1];
+                while (column >= 0 && column < NUM_TILES_PER_ROW && row >= 0 && row < NUM_TILES_PER_ROW) {
+                    RAYS[direction][tile] |= 1L << (row * NUM_TILES_PER_ROW + column);
+                    column += DIRECTION_STEPS[direction][0];
+                    row += DIRECTION_STEPS[direction][1];
+                }
+            }
+        }
+        //Walking out of a tile along a ray, every tile we reach is lined up with it. The tiles between the two are the ones on
+        //our ray that are also on the ray coming back the other way.
+        for (int first = 0; first < NUM_TILES; first++) {
+            for (int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+                final int opposite = (direction + NUM_DIRECTIONS / 2) % NUM_DIRECTIONS;
+                long ray = RAYS[direction][first];
+                while (ray != 0) {
+                    final int second = Long.numberOfTrailingZeros(ray);
+                    BETWEEN[first][second] = RAYS[direction][first] & RAYS[opposite][second];
+                    LINE[first][second] = RAYS[direction][first] | RAYS[opposite][first] | (1L << first);
+                    ray &= ray - 1;
+                }
+            }
+        }
+    }
 
-    private static List<Boolean> initColumn(int columnNumber) {
-        final Boolean[] column = new Boolean[NUM_TILES];
-        for(int i = 0; i < column.length; i++) {
-            column[i] = false;
+    private static long[] initColumnMasks() {
+        final long[] masks = new long[NUM_TILES_PER_ROW];
+        for(int i = 0; i < NUM_TILES; i++) {
+            masks[i % NUM_TILES_PER_ROW] |= 1L << i;
         }
-        do {
-            column[columnNumber] = true;
-            columnNumber += NUM_TILES_PER_ROW;
-        } while(columnNumber < NUM_TILES);
-        return ImmutableList.copyOf(column);
+        return masks;
     }
 
-    private static List<Boolean> initRow(int rowNumber) {
-        final Boolean[] row = new Boolean[NUM_TILES];
-        for(int i = 0; i < row.length; i++) {
-            row[i] = false;
+    private static long[] initRowMasks() {
+        final long[] masks = new long[NUM_TILES_PER_ROW];
+        for(int i = 0; i < NUM_TILES; i++) {
+            masks[i / NUM_TILES_PER_ROW] |= 1L << i;
         }
-        do {
-            row[rowNumber] = true;
-            rowNumber++;
-        } while(rowNumber % NUM_TILES_PER_ROW != 0);
-        return ImmutableList.copyOf(row);
+        return masks;
     }
 
     private Map<String, Integer> initializePositionToCoordinateMap() {
@@ -82,6 +150,54 @@ public enum  BoardUtils {
         return coordinate >= START_TILE_INDEX && coordinate < NUM_TILES;
     }
 
+    //The column of the tile, 0 for the a file up to 7 for the h file.
+    public static int getColumn(final int coordinate) {
+        return COLUMNS[coordinate];
+    }
+
+    //The row of the tile, 0 for the eighth rank down to 7 for the first rank.
+    public static int getRow(final int coordinate) {
+        return ROWS[coordinate];
+    }
+
+    public static int getDiagonal(final int coordinate) {
+        return DIAGONALS[coordinate];
+    }
+
+    public static int getAntiDiagonal(final int coordinate) {
+        return ANTI_DIAGONALS[coordinate];
+    }
+
+    public static int chebyshevDistance(final int first,
+                                        final int second) {
+        return CHEBYSHEV_DISTANCES[first][second];
+    }
+
+    public static int manhattanDistance(final int first,
+                                        final int second) {
+        return MANHATTAN_DISTANCES[first][second];
+    }
+
+    public static long ray(final int direction,
+                           final int coordinate) {
+        return RAYS[direction][coordinate];
+    }
+
+    public static long between(final int first,
+                               final int second) {
+        return BETWEEN[first][second];
+    }
+
+    public static long line(final int first,
+                            final int second) {
+        return LINE[first][second];
+    }
+
+    //Light tiles are the ones where row + column is even (a8 and h1 are light).
+    public static boolean isLightTile(final int coordinate) {
+        return ((ROWS[coordinate] + COLUMNS[coordinate]) & 1) == 0;
+    }
+
     public int getCoordinateAtPosition(final String position) {
         return POSITION_TO_COORDINATE.get(position);
     }
@@ -103,22 +219,20 @@ public enum  BoardUtils {
 //               !isThreatenedBoardImmediate(moveTransition.getToBoard());
 //    }
 
+    //Whether there was a check on the board or on any board before it that the board's history remembers.
     public static boolean threatChainScore(final Board board) {
-
-        Board currentBoard = board;
-        boolean isThreat = false;
-        while(currentBoard != null) {
-            if(currentBoard.whitePlayer().isInCheck() || currentBoard.blackPlayer().isInCheck()) {
-                isThreat = true;
-                break;
+        if(board.whitePlayer().isInCheck() || board.blackPlayer().isInCheck()) {
+            return true;
+        }
+        for (BoardHistory history = board.getHistory(); !history.isEmpty(); history = history.getPrevious()) {
+            if (history.wasInCheck()) {
+                return true;
             }
-            currentBoard = currentBoard.getTransitionMove().getBoard();
         }
-        return isThreat;
+        return false;
     }
 
     public static boolean isEndGame(final Board board) {
-        return board.currentPlayer().isInCheckMate() ||
-               board.currentPlayer().isInStaleMate();
+        return board.currentPlayer().getGameStatus().isGameOver();
     }
 }
\ No newline at end of file
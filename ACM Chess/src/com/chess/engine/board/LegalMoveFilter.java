@@ -0,0 +1,105 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/*This is the LegalMoveFilter class. It tells which pseudo-legal moves of the side to move are really legal, without making any
+of them. Once per position we work out where the king is, which enemy pieces give check (the checkers) and which of our pieces
+are pinned to the king. After that a move is tested with a few bit operations:
+
+- a king move is legal when the tile it goes to isn't attacked (looked at with the king taken off the board, so a slider
+  checking the king along a line still covers the tile behind it);
+- in double check only the king can move;
+- in single check any other move has to capture the checker or land between it and the king (the evasion mask);
+- a pinned piece can only move along the line between its king and the piece pinning it;
+- en passant takes two pawns off the same row at once, so it is tested by looking at the king with the pawns moved.*/
+public final class LegalMoveFilter {
+
+    private final Position position;
+    private final int kingSquare;
+    private final long checkers;
+    private final long pinned;
+
+    public LegalMoveFilter(final Position position) {
+        final Alliance alliance = position.getSideToMove();
+        this.position = position;
+        this.kingSquare = position.getKingSquare(alliance);
+        this.checkers = position.attackersOf(this.kingSquare, Position.opponent(alliance));
+        this.pinned = calculatePinned(position, alliance, this.kingSquare);
+    }
+
+    public boolean isInCheck() {
+        return this.checkers != 0;
+    }
+
+    public long getCheckers() {
+        return this.checkers;
+    }
+
+    public long getPinned() {
+        return this.pinned;
+    }
+
+    //Whether the encoded pseudo-legal move (see MoveEncoding) leaves the mover's king safe.
+    public boolean isLegal(final int move) {
+        return isLegal(this.position, move, this.kingSquare, this.checkers, this.pinned);
+    }
+
+    static boolean isLegal(final Position position,
+                           final int move,
+                           final int kingSquare,
+                           final long checkers,
+                           final long pinned) {
+        final int from = MoveEncoding.getFrom(move);
+        final int to = MoveEncoding.getTo(move);
+        final Alliance alliance = position.getSideToMove();
+        if (from == kingSquare) {
+            if (MoveEncoding.isCastle(move)) {
+                //The tiles the king crosses are already checked when the castle is generated.
+                return checkers == 0;
+            }
+            return position.attackersOf(to, Position.opponent(alliance), position.getOccupied() ^ (1L << kingSquare)) == 0;
+        }
+        if (MoveEncoding.isEnPassant(move)) {
+            return isLegalEnPassant(position, from, to, kingSquare, alliance);
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return false;
+        }
+        final long toMask = 1L << to;
+        if (checkers != 0 && ((checkers | BoardUtils.between(kingSquare, Long.numberOfTrailingZeros(checkers))) & toMask) == 0) {
+            return false;
+        }
+        return (pinned & (1L << from)) == 0 || (BoardUtils.line(kingSquare, from) & toMask) != 0;
+    }
+
+    //Our pieces that are the only piece between an enemy slider and our king, on a line the slider moves along.
+    static long calculatePinned(final Position position,
+                                final Alliance alliance,
+                                final int kingSquare) {
+        final Alliance enemy = Position.opponent(alliance);
+        final long queens = position.getPieces(enemy, PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, 0L) & (position.getPieces(enemy, PieceType.ROOK) | queens)) |
+                       (Attacks.bishopAttacks(kingSquare, 0L) & (position.getPieces(enemy, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            final long blockers = BoardUtils.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & position.getOccupied();
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & position.getAlliancePieces(alliance);
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    private static boolean isLegalEnPassant(final Position position,
+                                            final int from,
+                                            final int to,
+                                            final int kingSquare,
+                                            final Alliance alliance) {
+        final long capturedMask = 1L << (to + (alliance.getOppositeDirection() * BoardUtils.NUM_TILES_PER_ROW));
+        final long occupied = (position.getOccupied() ^ (1L << from) ^ capturedMask) | (1L << to);
+        return (position.attackersOf(kingSquare, Position.opponent(alliance), occupied) & ~capturedMask) == 0;
+    }
+
+}
@@ -3,7 +3,6 @@ package com.chess.engine.board;
 import com.chess.engine.board.Board.Builder;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
-import com.chess.engine.pieces.Piece.PieceType;
 import com.chess.engine.pieces.Rook;
 
 public abstract class Move {
@@ -12,6 +11,8 @@ public abstract class Move {
     protected final int destinationCoordinate;
     protected final Piece movedPiece;
     protected final boolean isFirstMove;
+    //The move written in SAN, worked out the first time toString() is called (see SanWriter).
+    private volatile String sanText;
 
     public static final Move NULL_MOVE = new NullMove();
 
@@ -60,6 +61,17 @@ public abstract class Move {
         return this.board;
     }
 
+    //The move in standard algebraic notation, like Nf3, exd5 or O-O+.
+    @Override
+    public String toString() {
+        String sanText = this.sanText;
+        if (sanText == null) {
+            sanText = SanWriter.write(this);
+            this.sanText = sanText;
+        }
+        return sanText;
+    }
+
     public int getCurrentCoordinate() {
         return this.movedPiece.getPiecePosition();
     }
@@ -84,39 +96,34 @@ public abstract class Move {
         return null;
     }
 
+    //Packs this move into an int, see MoveEncoding.
+    public int encode() {
+        final Piece attackedPiece = getAttackedPiece();
+        return MoveEncoding.encode(getCurrentCoordinate(), this.destinationCoordinate, this.movedPiece.getPieceType(),
+                attackedPiece != null ? attackedPiece.getPieceType() : null, getEncodingFlags());
+    }
+
+    //The MoveEncoding flags of this kind of move. Plain moves and captures have none.
+    protected int getEncodingFlags() {
+        return 0;
+    }
+
+    /*The board after this move, derived from the board the move was made on. Only the tiles the move touches are given to
+    the builder: the tile the piece leaves is cleared and the moved piece is put down on its destination, which also takes
+    the place of a captured piece.*/
     public Board execute() {
-        final Board.Builder builder = new Builder();
-        for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-            if (!this.movedPiece.equals(piece)) {
-                builder.setPiece(piece);
-            }
-        }
-        for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-            builder.setPiece(piece);
-        }
+        final Board.Builder builder = new Builder(this.board);
+        builder.clearPiece(this.movedPiece.getPiecePosition());
         builder.setPiece(this.movedPiece.movePiece(this));
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
         builder.setMoveTransition(this);
         return builder.build();
     }
 
+    /*The board the move was made on. Boards never change, so that is the board exactly as it was before the move, with its
+    history, halfmove clock and en passant pawn.*/
     public Board undo() {
-        final Board.Builder builder = new Builder();
-        for (final Piece piece : this.board.getAllPieces()) {
-            builder.setPiece(piece);
-        }
-        builder.setMoveMaker(this.board.currentPlayer().getAlliance());
-        return builder.build();
-    }
-
-    public String disambiguationFile() {
-        for(final Move move : this.board.currentPlayer().getLegalMoves()) {
-            if(move.getDestinationCoordinate() == this.destinationCoordinate && !this.equals(move) &&
-               this.movedPiece.getPieceType().equals(move.getMovedPiece().getPieceType())) {
-                return BoardUtils.INSTANCE.getPositionAtCoordinate(this.movedPiece.getPiecePosition()).substring(0, 1);
-            }
-        }
-        return "";
+        return this.board;
     }
 
     public enum MoveStatus {
@@ -166,20 +173,18 @@ public abstract class Move {
             return this == other || other instanceof PawnPromotion && (super.equals(other));
         }
 
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.PROMOTION;
+        }
+
         @Override
         public Board execute() {
-            final Board pawnMovedBoard = this.decoratedMove.execute();
-            final Board.Builder builder = new Builder();
-            for (final Piece piece : pawnMovedBoard.currentPlayer().getActivePieces()) {
-                if (!this.promotedPawn.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for (final Piece piece : pawnMovedBoard.currentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
+            //The pawn never lands on the board, the queen it promotes to is put down on the destination straight away.
+            final Board.Builder builder = new Builder(this.board);
+            builder.clearPiece(this.promotedPawn.getPiecePosition());
             builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
-            builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+            builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -194,12 +199,6 @@ public abstract class Move {
             return this.decoratedMove.getAttackedPiece();
         }
 
-        @Override
-        public String toString() {
-            return BoardUtils.INSTANCE.getPositionAtCoordinate(this.movedPiece.getPiecePosition()) + "-" +
-                   BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate) + "=" + PieceType.QUEEN;
-        }
-
     }
 
     public static class MajorMove
@@ -216,12 +215,6 @@ public abstract class Move {
             return this == other || other instanceof MajorMove && super.equals(other);
         }
 
-        @Override
-        public String toString() {
-            return movedPiece.getPieceType().toString() + disambiguationFile() +
-                   BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate);
-        }
-
     }
 
     public static class MajorAttackMove
@@ -240,12 +233,6 @@ public abstract class Move {
 
         }
 
-        @Override
-        public String toString() {
-            return movedPiece.getPieceType() + disambiguationFile() + "x" +
-                   BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate);
-        }
-
     }
 
     public static class PawnMove
@@ -262,11 +249,6 @@ public abstract class Move {
             return this == other || other instanceof PawnMove && super.equals(other);
         }
 
-        @Override
-        public String toString() {
-            return BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate);
-        }
-
     }
 
     public static class PawnAttackMove
@@ -284,12 +266,6 @@ public abstract class Move {
             return this == other || other instanceof PawnAttackMove && super.equals(other);
         }
 
-        @Override
-        public String toString() {
-            return BoardUtils.INSTANCE.getPositionAtCoordinate(this.movedPiece.getPiecePosition()).substring(0, 1) + "x" +
-                   BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate);
-        }
-
     }
 
     public static class PawnEnPassantAttack extends PawnAttackMove {
@@ -306,36 +282,22 @@ public abstract class Move {
             return this == other || other instanceof PawnEnPassantAttack && super.equals(other);
         }
 
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.EN_PASSANT;
+        }
+
         @Override
         public Board execute() {
-            final Board.Builder builder = new Builder();
-            for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-                if (!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-                if(!piece.equals(this.getAttackedPiece())) {
-                    builder.setPiece(piece);
-                }
-            }
+            final Board.Builder builder = new Builder(this.board);
+            builder.clearPiece(this.movedPiece.getPiecePosition());
+            builder.clearPiece(this.getAttackedPiece().getPiecePosition());
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
             return builder.build();
         }
 
-        @Override
-        public Board undo() {
-            final Board.Builder builder = new Builder();
-            for (final Piece piece : this.board.getAllPieces()) {
-                builder.setPiece(piece);
-            }
-            builder.setEnPassantPawn((Pawn)this.getAttackedPiece());
-            builder.setMoveMaker(this.board.currentPlayer().getAlliance());
-            return builder.build();
-        }
-
     }
 
     public static class PawnJump
@@ -352,17 +314,15 @@ public abstract class Move {
             return this == other || other instanceof PawnJump && super.equals(other);
         }
 
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.PAWN_JUMP;
+        }
+
         @Override
         public Board execute() {
-            final Board.Builder builder = new Builder();
-            for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-                if (!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
+            final Board.Builder builder = new Builder(this.board);
+            builder.clearPiece(this.movedPiece.getPiecePosition());
             final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
@@ -371,11 +331,6 @@ public abstract class Move {
             return builder.build();
         }
 
-        @Override
-        public String toString() {
-            return BoardUtils.INSTANCE.getPositionAtCoordinate(this.destinationCoordinate);
-        }
-
     }
 
     static abstract class CastleMove
@@ -406,14 +361,16 @@ public abstract class Move {
             return true;
         }
 
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.CASTLE;
+        }
+
         @Override
         public Board execute() {
-            final Board.Builder builder = new Builder();
-            for (final Piece piece : this.board.getAllPieces()) {
-                if (!this.movedPiece.equals(piece) && !this.castleRook.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
+            final Board.Builder builder = new Builder(this.board);
+            builder.clearPiece(this.movedPiece.getPiecePosition());
+            builder.clearPiece(this.castleRookStart);
             builder.setPiece(this.movedPiece.movePiece(this));
             //calling movePiece here doesn't work, we need to explicitly create a new Rook
             builder.setPiece(new Rook(this.castleRook.getPieceAllegiance(), this.castleRookDestination, false));
@@ -470,11 +427,6 @@ public abstract class Move {
             return super.equals(otherKingSideCastleMove) && this.castleRook.equals(otherKingSideCastleMove.getCastleRook());
         }
 
-        @Override
-        public String toString() {
-            return "O-O";
-        }
-
     }
 
     public static class QueenSideCastleMove
@@ -502,11 +454,6 @@ public abstract class Move {
             return super.equals(otherQueenSideCastleMove) && this.castleRook.equals(otherQueenSideCastleMove.getCastleRook());
         }
 
-        @Override
-        public String toString() {
-            return "O-O-O";
-        }
-
     }
 
     public static abstract class AttackMove
@@ -563,6 +510,11 @@ public abstract class Move {
             throw new RuntimeException("cannot execute null move!");
         }
 
+        @Override
+        public int encode() {
+            return MoveEncoding.NULL_MOVE;
+        }
+
         @Override
         public String toString() {
             return "Null Move";
@@ -575,16 +527,23 @@ public abstract class Move {
             throw new RuntimeException("Not instantiatable!");
         }
 
+        /*The move the player to move makes from one tile to the other. That's one lookup in the player's legal moves. If it
+        has no such move, the other player's move between the tiles (if any) is looked up the same way, so makeMove gets the move
+        and turns it down as illegal.*/
         public static Move createMove(final Board board,
                                       final int currentCoordinate,
                                       final int destinationCoordinate) {
-            for (final Move move : board.getAllLegalMoves()) {
-                if (move.getCurrentCoordinate() == currentCoordinate &&
-                    move.getDestinationCoordinate() == destinationCoordinate) {
-                    return move;
-                }
+            final Move legalMove = board.currentPlayer().getLegalMove(currentCoordinate, destinationCoordinate);
+            if (legalMove != NULL_MOVE) {
+                return legalMove;
             }
-            return NULL_MOVE;
+            return board.currentPlayer().getOpponent().getLegalMove(currentCoordinate, destinationCoordinate);
+        }
+
+        //The Move object on the board for an encoded move, or the null move if the board has no such move.
+        public static Move createMove(final Board board,
+                                      final int encodedMove) {
+            return createMove(board, MoveEncoding.getFrom(encodedMove), MoveEncoding.getTo(encodedMove));
         }
     }
 }
\ No newline at end of file
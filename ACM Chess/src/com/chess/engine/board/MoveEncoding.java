@@ -0,0 +1,112 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece.PieceType;
+
+/*This is the MoveEncoding enum. It packs a move into a single int so the search can generate, sort and store moves without
+creating a Move object (and holding on to a Board) for every one of them. The bits are laid out like this:
+
+    bits  0-5   the tile the piece moves from
+    bits  6-11  the tile the piece moves to
+    bits 12-14  the type of the moving piece (PieceType ordinal)
+    bits 15-17  the type of the captured piece, or NO_CAPTURE
+    bits 18-21  flags: promotion, castle, en passant and pawn jump
+
+Moves are always made by the side to move, so the alliance isn't stored. A promotion is always to a queen, the only promotion
+the engine makes. An encoded move can be turned back into the Move object of a Board with MoveFactory.createMove, and a Move
+can be encoded with Move.encode().*/
+public enum MoveEncoding {
+
+    INSTANCE;
+
+    public static final int NULL_MOVE = 0;
+
+    public static final int PROMOTION = 1;
+    public static final int CASTLE = 1 << 1;
+    public static final int EN_PASSANT = 1 << 2;
+    public static final int PAWN_JUMP = 1 << 3;
+
+    private static final int NO_CAPTURE = 7;
+
+    private static final int FROM_SHIFT = 0;
+    private static final int TO_SHIFT = 6;
+    private static final int MOVED_PIECE_SHIFT = 12;
+    private static final int CAPTURED_PIECE_SHIFT = 15;
+    private static final int FLAGS_SHIFT = 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0x7;
+    private static final int FLAGS_MASK = 0xF;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    public static int encode(final int from,
+                             final int to,
+                             final PieceType movedPieceType,
+                             final PieceType capturedPieceType,
+                             final int flags) {
+        return encode(from, to, movedPieceType.ordinal(),
+                capturedPieceType != null ? capturedPieceType.ordinal() : NO_CAPTURE, flags);
+    }
+
+    //Same as above, with the piece types given as PieceType ordinals (NO_CAPTURE when nothing is captured).
+    static int encode(final int from,
+                      final int to,
+                      final int movedPieceType,
+                      final int capturedPieceType,
+                      final int flags) {
+        return (from << FROM_SHIFT) | (to << TO_SHIFT) | (movedPieceType << MOVED_PIECE_SHIFT) |
+               (capturedPieceType << CAPTURED_PIECE_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    public static int getFrom(final int move) {
+        return (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int getTo(final int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static PieceType getMovedPieceType(final int move) {
+        return PIECE_TYPES[(move >>> MOVED_PIECE_SHIFT) & PIECE_MASK];
+    }
+
+    //Returns the type of the captured piece, or null if the move doesn't capture anything.
+    public static PieceType getCapturedPieceType(final int move) {
+        final int capturedPieceType = (move >>> CAPTURED_PIECE_SHIFT) & PIECE_MASK;
+        return capturedPieceType == NO_CAPTURE ? null : PIECE_TYPES[capturedPieceType];
+    }
+
+    public static int getFlags(final int move) {
+        return (move >>> FLAGS_SHIFT) & FLAGS_MASK;
+    }
+
+    public static boolean isCapture(final int move) {
+        return ((move >>> CAPTURED_PIECE_SHIFT) & PIECE_MASK) != NO_CAPTURE;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(final int move) {
+        return (getFlags(move) & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(final int move) {
+        return (getFlags(move) & EN_PASSANT) != 0;
+    }
+
+    public static boolean isPawnJump(final int move) {
+        return (getFlags(move) & PAWN_JUMP) != 0;
+    }
+
+    //Prints the move in from-to form, like e2-e4, with =Q added for a promotion.
+    public static String toString(final int move) {
+        if (move == NULL_MOVE) {
+            return "Null Move";
+        }
+        return BoardUtils.INSTANCE.getPositionAtCoordinate(getFrom(move)) + "-" +
+               BoardUtils.INSTANCE.getPositionAtCoordinate(getTo(move)) + (isPromotion(move) ? "=" + PieceType.QUEEN : "");
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/*This is the MoveGenerator enum. It generates the moves of the side to move straight from the bitboards of a Position, as
+encoded moves (see MoveEncoding) added to a MoveList. No Move, Piece or Board objects are created, so a search running on a
+SearchBoard can generate moves at every node without allocating anything.
+
+generateMoves gives the pseudo-legal moves, the same moves the pieces' calculateLegalMoves give: a move may still leave the
+mover's own king in check. Castles are only generated when the king is not in check and doesn't pass over an attacked tile,
+like the players do. generateLegalMoves gives only the legal moves, by running the pseudo-legal ones through the checks and
+pins of the position (see LegalMoveFilter), so no move ever has to be made to find out whether it is legal.
+
+The pseudo-legal moves can also be generated in two halves, the captures and promotions (generateCaptures) and the quiet
+moves (generateQuiets), so a search can try the captures first and only generate the quiet moves if it still needs them (see
+MovePicker).*/
+public enum MoveGenerator {
+
+    INSTANCE;
+
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int NO_CAPTURE = 7;
+
+    //The kinds of moves generateMoves can be asked for.
+    private static final int CAPTURES = 1;
+    private static final int QUIETS = 1 << 1;
+    private static final long ALL_PIECES = -1L;
+
+    private static final long WHITE_STARTING_ROW = BoardUtils.ROW_MASKS[6];
+    private static final long BLACK_STARTING_ROW = BoardUtils.ROW_MASKS[1];
+    private static final long PROMOTION_ROWS = BoardUtils.ROW_MASKS[0] | BoardUtils.ROW_MASKS[7];
+
+    //Tiles between the king and the rook that have to be empty for a castle.
+    private static final long WHITE_KING_SIDE_EMPTY = (1L << 61) | (1L << 62);
+    private static final long WHITE_QUEEN_SIDE_EMPTY = (1L << 57) | (1L << 58) | (1L << 59);
+    private static final long BLACK_KING_SIDE_EMPTY = (1L << 5) | (1L << 6);
+    private static final long BLACK_QUEEN_SIDE_EMPTY = (1L << 1) | (1L << 2) | (1L << 3);
+
+    /*Adds the legal moves of the side to move to the list. The checkers and pinned pieces are worked out once, then every
+    pseudo-legal move is kept or dropped with a few bit tests.*/
+    public static void generateLegalMoves(final Position position,
+                                          final MoveList moves) {
+        final int start = moves.size();
+        generateMoves(position, moves);
+        final Alliance alliance = position.getSideToMove();
+        final int kingSquare = position.getKingSquare(alliance);
+        final long checkers = position.attackersOf(kingSquare, Position.opponent(alliance));
+        final long pinned = LegalMoveFilter.calculatePinned(position, alliance, kingSquare);
+        int legalMoves = start;
+        for (int i = start; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (LegalMoveFilter.isLegal(position, move, kingSquare, checkers, pinned)) {
+                moves.set(legalMoves++, move);
+            }
+        }
+        moves.truncate(legalMoves);
+    }
+
+    public static void generateMoves(final Position position,
+                                     final MoveList moves) {
+        generateMoves(position, moves, ALL_PIECES, CAPTURES | QUIETS);
+    }
+
+    //Only the captures (en passant included) and the promotions, the moves that change the material on the board.
+    public static void generateCaptures(final Position position,
+                                        final MoveList moves) {
+        generateMoves(position, moves, ALL_PIECES, CAPTURES);
+    }
+
+    //Everything generateCaptures leaves out: the moves to empty tiles that don't promote, and the castles.
+    public static void generateQuiets(final Position position,
+                                      final MoveList moves) {
+        generateMoves(position, moves, ALL_PIECES, QUIETS);
+    }
+
+    /*Whether the encoded move is one of the pseudo-legal moves of the position. Used to check a move that comes from somewhere
+    else, like a hash table or a killer slot, before it is played: only the moves of the piece on the move's tile are generated
+    (into the scratch list) and looked through.*/
+    public static boolean isPseudoLegal(final Position position,
+                                        final int move,
+                                        final MoveList scratch) {
+        final int from = MoveEncoding.getFrom(move);
+        if (move == MoveEncoding.NULL_MOVE ||
+            (position.getPieces(position.getSideToMove(), MoveEncoding.getMovedPieceType(move)) & (1L << from)) == 0) {
+            return false;
+        }
+        scratch.clear();
+        generateMoves(position, scratch, 1L << from, CAPTURES | QUIETS);
+        return scratch.contains(move);
+    }
+
+    /*Generates the moves of the side to move's pieces standing on the tiles of fromMask. The kinds say which moves: CAPTURES for
+    captures and promotions, QUIETS for the rest.*/
+    private static void generateMoves(final Position position,
+                                      final MoveList moves,
+                                      final long fromMask,
+                                      final int kinds) {
+        final Alliance alliance = position.getSideToMove();
+        final long ownPieces = position.getAlliancePieces(alliance);
+        final long enemyPieces = position.getOccupied() & ~ownPieces;
+        final long occupied = position.getOccupied();
+        final long targets = ((kinds & CAPTURES) != 0 ? enemyPieces : 0L) | ((kinds & QUIETS) != 0 ? ~occupied : 0L);
+
+        generatePawnMoves(position, alliance, enemyPieces, fromMask, kinds, moves);
+
+        long knights = position.getPieces(alliance, PieceType.KNIGHT) & fromMask;
+        while (knights != 0) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            addMoves(position, from, PieceType.KNIGHT.ordinal(), Attacks.knightAttacks(from) & targets, moves);
+            knights &= knights - 1;
+        }
+        long bishops = position.getPieces(alliance, PieceType.BISHOP) & fromMask;
+        while (bishops != 0) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            addMoves(position, from, PieceType.BISHOP.ordinal(), Attacks.bishopAttacks(from, occupied) & targets, moves);
+            bishops &= bishops - 1;
+        }
+        long rooks = position.getPieces(alliance, PieceType.ROOK) & fromMask;
+        while (rooks != 0) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            addMoves(position, from, PieceType.ROOK.ordinal(), Attacks.rookAttacks(from, occupied) & targets, moves);
+            rooks &= rooks - 1;
+        }
+        long queens = position.getPieces(alliance, PieceType.QUEEN) & fromMask;
+        while (queens != 0) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            addMoves(position, from, PieceType.QUEEN.ordinal(), Attacks.queenAttacks(from, occupied) & targets, moves);
+            queens &= queens - 1;
+        }
+        final int kingSquare = position.getKingSquare(alliance);
+        if ((fromMask & (1L << kingSquare)) != 0) {
+            addMoves(position, kingSquare, KING, Attacks.kingAttacks(kingSquare) & targets, moves);
+            if ((kinds & QUIETS) != 0) {
+                generateCastles(position, alliance, kingSquare, moves);
+            }
+        }
+    }
+
+    private static void generatePawnMoves(final Position position,
+                                          final Alliance alliance,
+                                          final long enemyPieces,
+                                          final long fromMask,
+                                          final int kinds,
+                                          final MoveList moves) {
+        final boolean captures = (kinds & CAPTURES) != 0;
+        final boolean quiets = (kinds & QUIETS) != 0;
+        final int forwardOffset = alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        final long startingRow = alliance.isWhite() ? WHITE_STARTING_ROW : BLACK_STARTING_ROW;
+        final int enPassantSquare = position.getEnPassantSquare();
+        final long enPassantMask = enPassantSquare != Position.NO_SQUARE ? 1L << enPassantSquare : 0L;
+        long pawns = position.getPieces(alliance, PieceType.PAWN) & fromMask;
+        while (pawns != 0) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            final int to = from + forwardOffset;
+            if (!position.isOccupied(to)) {
+                //A push to the last row is a promotion, which counts with the captures.
+                if ((PROMOTION_ROWS & (1L << to)) != 0 ? captures : quiets) {
+                    addPawnMove(from, to, NO_CAPTURE, moves);
+                }
+                final int jumpTo = to + forwardOffset;
+                if (quiets && (startingRow & (1L << from)) != 0 && !position.isOccupied(jumpTo)) {
+                    moves.add(MoveEncoding.encode(from, jumpTo, PAWN, NO_CAPTURE, MoveEncoding.PAWN_JUMP));
+                }
+            }
+            if (captures) {
+                final long attackedTiles = Attacks.pawnAttacks(alliance, from);
+                long attacks = attackedTiles & enemyPieces;
+                while (attacks != 0) {
+                    final int captureTo = Long.numberOfTrailingZeros(attacks);
+                    addPawnMove(from, captureTo, position.getPieceTypeAt(captureTo).ordinal(), moves);
+                    attacks &= attacks - 1;
+                }
+                if ((attackedTiles & enPassantMask) != 0) {
+                    moves.add(MoveEncoding.encode(from, enPassantSquare, PAWN, PAWN, MoveEncoding.EN_PASSANT));
+                }
+            }
+            pawns &= pawns - 1;
+        }
+    }
+
+    private static void addPawnMove(final int from,
+                                    final int to,
+                                    final int capturedPieceType,
+                                    final MoveList moves) {
+        final int flags = (PROMOTION_ROWS & (1L << to)) != 0 ? MoveEncoding.PROMOTION : 0;
+        moves.add(MoveEncoding.encode(from, to, PAWN, capturedPieceType, flags));
+    }
+
+    private static void addMoves(final Position position,
+                                 final int from,
+                                 final int movedPieceType,
+                                 long destinations,
+                                 final MoveList moves) {
+        while (destinations != 0) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            final int capturedPieceType = position.isOccupied(to) ? position.getPieceTypeAt(to).ordinal() : NO_CAPTURE;
+            moves.add(MoveEncoding.encode(from, to, movedPieceType, capturedPieceType, 0));
+            destinations &= destinations - 1;
+        }
+    }
+
+    private static void generateCastles(final Position position,
+                                        final Alliance alliance,
+                                        final int kingSquare,
+                                        final MoveList moves) {
+        final boolean kingSide = position.isKingSideCastleCapable(alliance) &&
+                (position.getOccupied() & (alliance.isWhite() ? WHITE_KING_SIDE_EMPTY : BLACK_KING_SIDE_EMPTY)) == 0;
+        final boolean queenSide = position.isQueenSideCastleCapable(alliance) &&
+                (position.getOccupied() & (alliance.isWhite() ? WHITE_QUEEN_SIDE_EMPTY : BLACK_QUEEN_SIDE_EMPTY)) == 0;
+        if ((!kingSide && !queenSide) || isAttacked(position, kingSquare, alliance)) {
+            return;
+        }
+        if (kingSide && !isAttacked(position, kingSquare + 1, alliance) && !isAttacked(position, kingSquare + 2, alliance)) {
+            moves.add(MoveEncoding.encode(kingSquare, kingSquare + 2, KING, NO_CAPTURE, MoveEncoding.CASTLE));
+        }
+        if (queenSide && !isAttacked(position, kingSquare - 1, alliance) && !isAttacked(position, kingSquare - 2, alliance)) {
+            moves.add(MoveEncoding.encode(kingSquare, kingSquare - 2, KING, NO_CAPTURE, MoveEncoding.CASTLE));
+        }
+    }
+
+    private static boolean isAttacked(final Position position,
+                                      final int square,
+                                      final Alliance alliance) {
+        return position.isSquareAttacked(square, Position.opponent(alliance));
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.chess.engine.board;
+
+import java.util.Collection;
+
+/*This is the MoveIndex class. It files the moves of one position by the tile they start from and the tile they go to, so finding
+the move a click, a PGN move or a book move stands for is one lookup instead of going through every move and comparing them.
+
+A position can't have two moves with the same start and end tile: the only moves that would are the promotions, and the engine
+only ever promotes to a queen, so the promotion piece is always known and the start and end tile are enough for a key.
+The index is a small hash table with open addressing: an int array of keys next to an array of moves, twice as big as needed so
+a lookup nearly always hits on the first try.*/
+public final class MoveIndex {
+
+    private static final int EMPTY = 0;
+
+    private final int[] keys;
+    private final Move[] moves;
+    private final int mask;
+
+    public MoveIndex(final Collection<Move> moves) {
+        int capacity = 16;
+        while (capacity < 2 * moves.size()) {
+            capacity <<= 1;
+        }
+        this.keys = new int[capacity];
+        this.moves = new Move[capacity];
+        this.mask = capacity - 1;
+        for (final Move move : moves) {
+            int slot = slot(key(move));
+            while (this.keys[slot] != EMPTY) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key(move);
+            this.moves[slot] = move;
+        }
+    }
+
+    //The move from one tile to the other, or the null move if there isn't one.
+    public Move get(final int currentCoordinate,
+                    final int destinationCoordinate) {
+        if (!BoardUtils.isValidTileCoordinate(currentCoordinate) || !BoardUtils.isValidTileCoordinate(destinationCoordinate)) {
+            return Move.NULL_MOVE;
+        }
+        final Move move = find(key(currentCoordinate, destinationCoordinate));
+        return move != null ? move : Move.NULL_MOVE;
+    }
+
+    //Looks up the one move with the same tiles and then compares only that one, instead of comparing against every move.
+    public boolean contains(final Move move) {
+        if (move == Move.NULL_MOVE) {
+            return false;
+        }
+        final Move found = find(key(move));
+        return found != null && (found == move || found.equals(move));
+    }
+
+    private Move find(final int key) {
+        int slot = slot(key);
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                return this.moves[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+
+    private int slot(final int key) {
+        return (key * 0x9E3779B9 >>> 16) & this.mask;
+    }
+
+    private static int key(final Move move) {
+        return key(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+    }
+
+    //The from and to bits of the encoded move (see MoveEncoding). One is added so no key is 0, which marks an empty slot.
+    private static int key(final int currentCoordinate,
+                           final int destinationCoordinate) {
+        return MoveEncoding.encode(currentCoordinate, destinationCoordinate, 0, 0, 0) + 1;
+    }
+
+}
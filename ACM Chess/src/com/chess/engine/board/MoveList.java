@@ -0,0 +1,83 @@
+package com.chess.engine.board;
+
+import java.util.Arrays;
+
+/*This is the MoveList class. It's a list of encoded moves (see MoveEncoding) backed by an int array, so adding a move never
+allocates anything once the list has grown big enough. A search keeps one list per ply and clears it before generating the moves
+of the next position into it.*/
+public final class MoveList {
+
+    //More than enough for any position the engine will see (the most known is 218), the list still grows if it has to.
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(final int capacity) {
+        this.moves = new int[capacity];
+        this.size = 0;
+    }
+
+    public void add(final int move) {
+        if (this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public void set(final int index,
+                    final int move) {
+        this.moves[index] = move;
+    }
+
+    public void swap(final int first,
+                     final int second) {
+        final int move = this.moves[first];
+        this.moves[first] = this.moves[second];
+        this.moves[second] = move;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    //Drops every move from the index on.
+    public void truncate(final int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            builder.append(i > 0 ? ", " : "").append(MoveEncoding.toString(this.moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+
+}
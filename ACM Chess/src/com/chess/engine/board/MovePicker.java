@@ -0,0 +1,206 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/*This is the MovePicker class. It hands out the legal moves of a position one at a time, best guesses first, and only generates
+the moves of a stage when the stages before it have run out. The stages are:
+
+1. the hash move, the best move found for this position before (from a transposition table or an earlier iteration);
+2. the winning captures and the promotions, most valuable victim first and, between equal victims, least valuable attacker
+   first (MVV-LVA, using PieceType.getPieceValue);
+3. the killer moves, quiet moves that caused a cutoff in another position at the same ply;
+4. the quiet moves;
+5. the losing captures: a piece taking a cheaper piece that is defended.
+
+Alpha-beta usually cuts off on one of the first moves of a node, and most cutoffs come from the hash move or a capture. Since
+the quiet moves aren't generated until stage 4, most cut nodes never generate them at all.
+
+The moves of every stage are pseudo-legal and are checked against the checks and pins of the position (see LegalMoveFilter)
+before they are handed out, so next() only ever returns legal moves, each of them once. A search keeps one MovePicker per ply
+and calls init for every node, so nothing is allocated while searching.
+
+Perft counts through it (see Perft.Generator.MOVE_PICKER), checking at every position that it hands out exactly the legal moves.
+No search uses it yet; it is meant for a search that plays its moves on a SearchBoard. The searches in player.ai play Move objects
+on Boards, and a Board's legal moves are generated all at once the first time they are asked for (the evaluator's mobility
+term asks for them on every board it scores), so handing those searches the moves one stage at a time would save nothing.*/
+public final class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int WINNING_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int LOSING_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    //A promotion is worth what the pawn turns into minus the pawn.
+    private static final int PROMOTION_GAIN = PieceType.QUEEN.getPieceValue() - PieceType.PAWN.getPieceValue();
+
+    private final MoveList moves = new MoveList();
+    private final MoveList losingCaptures = new MoveList();
+    private final MoveList scratch = new MoveList();
+    private int[] scores = new int[64];
+
+    private Position position;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int kingSquare;
+    private long checkers;
+    private long pinned;
+    private int stage;
+    private int index;
+
+    //Gets the picker ready for a new position. Pass MoveEncoding.NULL_MOVE for a hash move or killer the search doesn't have.
+    public void init(final Position position,
+                     final int hashMove,
+                     final int firstKiller,
+                     final int secondKiller) {
+        final Alliance alliance = position.getSideToMove();
+        this.position = position;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.kingSquare = position.getKingSquare(alliance);
+        this.checkers = position.attackersOf(this.kingSquare, Position.opponent(alliance));
+        this.pinned = LegalMoveFilter.calculatePinned(position, alliance, this.kingSquare);
+        this.moves.clear();
+        this.losingCaptures.clear();
+        this.stage = HASH_MOVE;
+        this.index = 0;
+    }
+
+    //The next legal move, or MoveEncoding.NULL_MOVE when there are none left.
+    public int next() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE:
+                    this.stage = GENERATE_CAPTURES;
+                    if (isPlayable(this.hashMove)) {
+                        return this.hashMove;
+                    }
+                    break;
+                case GENERATE_CAPTURES:
+                    MoveGenerator.generateCaptures(this.position, this.moves);
+                    scoreCaptures();
+                    this.index = 0;
+                    this.stage = WINNING_CAPTURES;
+                    break;
+                case WINNING_CAPTURES:
+                    while (this.index < this.moves.size()) {
+                        final int move = pickBestCapture();
+                        if (move != this.hashMove && isLegal(move)) {
+                            return move;
+                        }
+                    }
+                    this.stage = FIRST_KILLER;
+                    break;
+                case FIRST_KILLER:
+                    this.stage = SECOND_KILLER;
+                    if (isPlayableKiller(this.firstKiller)) {
+                        return this.firstKiller;
+                    }
+                    break;
+                case SECOND_KILLER:
+                    this.stage = GENERATE_QUIETS;
+                    if (this.secondKiller != this.firstKiller && isPlayableKiller(this.secondKiller)) {
+                        return this.secondKiller;
+                    }
+                    break;
+                case GENERATE_QUIETS:
+                    this.moves.clear();
+                    MoveGenerator.generateQuiets(this.position, this.moves);
+                    this.index = 0;
+                    this.stage = QUIETS;
+                    break;
+                case QUIETS:
+                    while (this.index < this.moves.size()) {
+                        final int move = this.moves.get(this.index++);
+                        if (move != this.hashMove && move != this.firstKiller && move != this.secondKiller && isLegal(move)) {
+                            return move;
+                        }
+                    }
+                    this.index = 0;
+                    this.stage = LOSING_CAPTURES;
+                    break;
+                case LOSING_CAPTURES:
+                    while (this.index < this.losingCaptures.size()) {
+                        final int move = this.losingCaptures.get(this.index++);
+                        if (move != this.hashMove && isLegal(move)) {
+                            return move;
+                        }
+                    }
+                    this.stage = DONE;
+                    break;
+                default:
+                    return MoveEncoding.NULL_MOVE;
+            }
+        }
+    }
+
+    /*Gives every capture and promotion its MVV-LVA score. Captures of a cheaper piece that the opponent defends are moved to the
+    losing captures, which are only tried after the quiet moves.*/
+    private void scoreCaptures() {
+        if (this.scores.length < this.moves.size()) {
+            this.scores = new int[this.moves.size() * 2];
+        }
+        final Alliance enemy = Position.opponent(this.position.getSideToMove());
+        int winningCaptures = 0;
+        for (int i = 0; i < this.moves.size(); i++) {
+            final int move = this.moves.get(i);
+            final int attackerValue = MoveEncoding.getMovedPieceType(move).getPieceValue();
+            final PieceType victim = MoveEncoding.getCapturedPieceType(move);
+            final int victimValue = (victim != null ? victim.getPieceValue() : 0) +
+                                    (MoveEncoding.isPromotion(move) ? PROMOTION_GAIN : 0);
+            if (!MoveEncoding.isPromotion(move) && attackerValue > victimValue &&
+                this.position.isSquareAttacked(MoveEncoding.getTo(move), enemy)) {
+                this.losingCaptures.add(move);
+                continue;
+            }
+            this.moves.set(winningCaptures, move);
+            this.scores[winningCaptures++] = mvvLva(victimValue, attackerValue);
+        }
+        this.moves.truncate(winningCaptures);
+    }
+
+    //The victim counts for far more than the attacker: a pawn taking a queen comes before a queen taking a rook.
+    private static int mvvLva(final int victimValue,
+                              final int attackerValue) {
+        return victimValue * PIECE_TYPES.length * 4 - attackerValue / 100;
+    }
+
+    //Swaps the best scored capture left into the next place and returns it. A selection sort done one move at a time, so the
+    //captures after a cutoff are never sorted.
+    private int pickBestCapture() {
+        int best = this.index;
+        for (int i = this.index + 1; i < this.moves.size(); i++) {
+            if (this.scores[i] > this.scores[best]) {
+                best = i;
+            }
+        }
+        this.moves.swap(this.index, best);
+        final int score = this.scores[best];
+        this.scores[best] = this.scores[this.index];
+        this.scores[this.index] = score;
+        return this.moves.get(this.index++);
+    }
+
+    private boolean isPlayable(final int move) {
+        return move != MoveEncoding.NULL_MOVE && MoveGenerator.isPseudoLegal(this.position, move, this.scratch) && isLegal(move);
+    }
+
+    //A killer is only tried here if it is a quiet move; captures are already handed out by their score.
+    private boolean isPlayableKiller(final int killer) {
+        return killer != this.hashMove && !MoveEncoding.isCapture(killer) && !MoveEncoding.isPromotion(killer) &&
+               isPlayable(killer);
+    }
+
+    private boolean isLegal(final int move) {
+        return LegalMoveFilter.isLegal(this.position, move, this.kingSquare, this.checkers, this.pinned);
+    }
+
+}
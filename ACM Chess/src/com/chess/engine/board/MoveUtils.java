@@ -4,14 +4,20 @@ public enum MoveUtils {
 
     INSTANCE;
 
+    /*Five to the power of the number of captures in the move and the moves before it. The moves before it are read from the
+    board's history (see BoardHistory), which only remembers the last stretch of the game, so a long game doesn't make this any
+    slower.*/
     public static int exchangeScore(final Move move) {
         if(move == Move.NULL_MOVE) {
             return 1;
         }
-        return move.isAttack() ?
-                5 * exchangeScore(move.getBoard().getTransitionMove()) :
-                exchangeScore(move.getBoard().getTransitionMove());
-
+        int score = move.isAttack() ? 5 : 1;
+        for (BoardHistory history = move.getBoard().getHistory(); !history.isEmpty(); history = history.getPrevious()) {
+            if (MoveEncoding.isCapture(history.getMove())) {
+                score *= 5;
+            }
+        }
+        return score;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,447 @@
+package com.chess.engine.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*This is the Perft class. Perft (performance test) counts every position that can be reached from a board in a given number of
+moves. The counts for well known positions are published, so a wrong count means the move generator has a bug, and the time it
+takes tells how fast the generator is.
+
+Perft can count with any of the generators (see Generator): the Board/Player path the GUI uses (Player.getLegalMoves and
+makeMove), the MoveGenerator on a SearchBoard, or the MovePicker on a SearchBoard. They all have to give the same counts. The
+MovePicker one also checks, at every position, that the picker hands out exactly the legal moves of MoveGenerator, each of them
+once, with hash moves and killer moves (legal ones and ones that aren't legal there) thrown in the way a search would. On top of
+that it can:
+
+- divide: give the count under every root move separately, which is how a bug is tracked down to one move;
+- keep a cache of counts keyed by the Zobrist key of the position and the depth left, since the same position is reached by
+  many different move orders;
+- count in parallel, one fork-join task per root move.
+
+The last ply isn't played out: the legal moves of the position are strictly legal, so their number is the count. The engine
+only promotes to a queen, so once pawns can promote the counts come out lower than the published ones.*/
+public final class Perft {
+
+    public enum Generator {
+        //Boards, Move objects and Player.makeMove.
+        BOARD,
+        //SearchBoard.makeMove/unmakeMove and MoveGenerator.generateLegalMoves.
+        SEARCH_BOARD,
+        //SearchBoard.makeMove/unmakeMove and the moves MovePicker.next hands out, checked against generateLegalMoves.
+        MOVE_PICKER
+    }
+
+    //Boards to check the generators against each other on, as the moves (from and to tile) that lead to them from the standard
+    //board: castling, en passant, a capture that promotes, a check and a pin.
+    private static final String[][] CHECK_OPENINGS = {
+            {},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6"},
+            {"e2e4", "a7a6", "e4e5", "d7d5"},
+            {"h2h4", "g7g5", "h4g5", "h7h6", "g5h6", "g8f6", "h6h7", "f6g8"},
+            {"e2e4", "d7d5", "f1b5"},
+            {"d2d4", "e7e5", "d4e5", "f8b4"}
+    };
+    private static final int CHECK_DEPTH = 4;
+
+    private static final int DEFAULT_DEPTH = 5;
+    private static final int DEFAULT_CACHE_BITS = 20;
+
+    private final Generator generator;
+    private final PerftCache cache;
+    private final boolean parallel;
+
+    //cacheBits is the log2 of the number of cache entries, 0 for no cache.
+    public Perft(final Generator generator,
+                 final int cacheBits,
+                 final boolean parallel) {
+        this.generator = generator;
+        this.cache = cacheBits > 0 ? new PerftCache(cacheBits) : null;
+        this.parallel = parallel;
+    }
+
+    public PerftResult perft(final Board board,
+                             final int depth) {
+        return run(board, depth, false);
+    }
+
+    //Same as perft, with the count under every root move kept in the result.
+    public PerftResult divide(final Board board,
+                              final int depth) {
+        return run(board, depth, true);
+    }
+
+    private PerftResult run(final Board board,
+                            final int depth,
+                            final boolean divide) {
+        final long start = System.nanoTime();
+        final Map<String, Long> rootCounts = new TreeMap<>();
+        long nodes = 0;
+        if (depth == 0) {
+            nodes = 1;
+        } else {
+            final List<RootMoveTask> tasks = createRootMoveTasks(board, depth - 1);
+            if (this.parallel) {
+                ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+                    @Override
+                    protected Void compute() {
+                        invokeAll(tasks);
+                        return null;
+                    }
+                });
+            }
+            for (final RootMoveTask task : tasks) {
+                final long count = this.parallel ? task.join() : task.compute();
+                rootCounts.put(task.label, count);
+                nodes += count;
+            }
+        }
+        return new PerftResult(depth, nodes, System.nanoTime() - start,
+                divide ? Collections.unmodifiableMap(rootCounts) : Collections.emptyMap());
+    }
+
+    private List<RootMoveTask> createRootMoveTasks(final Board board,
+                                                   final int depthLeft) {
+        final List<RootMoveTask> tasks = new ArrayList<>();
+        if (this.generator == Generator.BOARD) {
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
+                tasks.add(new RootMoveTask(MoveEncoding.toString(move.encode()), depthLeft) {
+                    @Override
+                    protected Long compute() {
+                        final MoveTransition transition = board.currentPlayer().makeMove(move);
+                        return transition.getMoveStatus().isDone() ? countBoard(transition.getToBoard(), this.depthLeft) : 0L;
+                    }
+                });
+            }
+        } else if (this.generator == Generator.SEARCH_BOARD) {
+            final MoveList moves = new MoveList();
+            MoveGenerator.generateLegalMoves(board.getPosition(), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = moves.get(i);
+                tasks.add(new RootMoveTask(MoveEncoding.toString(move), depthLeft) {
+                    @Override
+                    protected Long compute() {
+                        //Every task gets its own search board, they can't be shared between threads.
+                        final SearchBoard searchBoard = new SearchBoard(board);
+                        searchBoard.makeMove(move);
+                        final MoveList[] moveLists = new MoveList[this.depthLeft + 1];
+                        for (int ply = 0; ply < moveLists.length; ply++) {
+                            moveLists[ply] = new MoveList();
+                        }
+                        return countSearchBoard(searchBoard, this.depthLeft, moveLists);
+                    }
+                });
+            }
+        } else {
+            final SearchBoard rootBoard = new SearchBoard(board);
+            final MoveList moves = new MoveList();
+            pickMoves(rootBoard, new MovePicker(), MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, moves, new MoveList());
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = moves.get(i);
+                tasks.add(new RootMoveTask(MoveEncoding.toString(move), depthLeft) {
+                    @Override
+                    protected Long compute() {
+                        final SearchBoard searchBoard = new SearchBoard(board);
+                        searchBoard.makeMove(move);
+                        final MoveList[] moveLists = new MoveList[this.depthLeft + 1];
+                        final MovePicker[] pickers = new MovePicker[this.depthLeft + 1];
+                        for (int ply = 0; ply < moveLists.length; ply++) {
+                            moveLists[ply] = new MoveList();
+                            pickers[ply] = new MovePicker();
+                        }
+                        return countMovePicker(searchBoard, this.depthLeft, moveLists, pickers, new MoveList(),
+                                new int[this.depthLeft + 1][2]);
+                    }
+                });
+            }
+        }
+        return tasks;
+    }
+
+    private long countBoard(final Board board,
+                            final int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            return board.currentPlayer().getLegalMoves().size();
+        }
+        final long key = board.getZobristKey();
+        if (this.cache != null) {
+            final long cached = this.cache.get(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += countBoard(transition.getToBoard(), depth - 1);
+            }
+        }
+        if (this.cache != null) {
+            this.cache.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    //moveLists holds one list per depth, so nothing is allocated while counting.
+    private long countSearchBoard(final SearchBoard searchBoard,
+                                  final int depth,
+                                  final MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        final MoveList moves = moveLists[depth];
+        moves.clear();
+        if (depth == 1) {
+            MoveGenerator.generateLegalMoves(searchBoard, moves);
+            return moves.size();
+        }
+        final long key = searchBoard.getZobristKey();
+        if (this.cache != null) {
+            final long cached = this.cache.get(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        MoveGenerator.generateLegalMoves(searchBoard, moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            searchBoard.makeMove(moves.get(i));
+            nodes += countSearchBoard(searchBoard, depth - 1, moveLists);
+            searchBoard.unmakeMove();
+        }
+        if (this.cache != null) {
+            this.cache.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /*Like countSearchBoard, with the moves of every position handed out by a MovePicker (one per depth). killers holds the last
+    two moves played at every depth, anywhere in the tree, which is what a search's killer moves are too: often a move that
+    isn't legal in the position at hand.*/
+    private long countMovePicker(final SearchBoard searchBoard,
+                                 final int depth,
+                                 final MoveList[] moveLists,
+                                 final MovePicker[] pickers,
+                                 final MoveList legalMoves,
+                                 final int[][] killers) {
+        if (depth == 0) {
+            return 1;
+        }
+        final MoveList moves = moveLists[depth];
+        pickMoves(searchBoard, pickers[depth], killers[depth][0], killers[depth][1], moves, legalMoves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        final long key = searchBoard.getZobristKey();
+        if (this.cache != null) {
+            final long cached = this.cache.get(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            searchBoard.makeMove(move);
+            nodes += countMovePicker(searchBoard, depth - 1, moveLists, pickers, legalMoves, killers);
+            searchBoard.unmakeMove();
+            if (move != killers[depth][0]) {
+                killers[depth][1] = killers[depth][0];
+                killers[depth][0] = move;
+            }
+        }
+        if (this.cache != null) {
+            this.cache.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /*Fills moves with what the picker hands out for the position, and checks that it is exactly the legal moves, each of them
+    once. Every other position gets one of its legal moves as the hash move (picked by its Zobrist key); the rest get the
+    second killer, which may not be legal there. legalMoves is a scratch list.*/
+    private static void pickMoves(final Position position,
+                                  final MovePicker picker,
+                                  final int firstKiller,
+                                  final int secondKiller,
+                                  final MoveList moves,
+                                  final MoveList legalMoves) {
+        legalMoves.clear();
+        MoveGenerator.generateLegalMoves(position, legalMoves);
+        final long key = position.getZobristKey();
+        final int hashMove = (key & 1) == 0 && !legalMoves.isEmpty() ?
+                legalMoves.get((int) ((key >>> 1) % legalMoves.size())) : secondKiller;
+        moves.clear();
+        picker.init(position, hashMove, firstKiller, secondKiller);
+        for (int move = picker.next(); move != MoveEncoding.NULL_MOVE; move = picker.next()) {
+            if (!legalMoves.contains(move)) {
+                throw new RuntimeException("MovePicker handed out " + MoveEncoding.toString(move) + ", which isn't legal!");
+            }
+            if (moves.contains(move)) {
+                throw new RuntimeException("MovePicker handed out " + MoveEncoding.toString(move) + " twice!");
+            }
+            moves.add(move);
+        }
+        if (moves.size() != legalMoves.size()) {
+            throw new RuntimeException("MovePicker handed out " + moves.size() + " of the " + legalMoves.size() +
+                                       " legal moves!");
+        }
+    }
+
+    /*Counts the check boards (see CHECK_OPENINGS) with every generator and throws if any of them disagrees with SEARCH_BOARD, or
+    if the MovePicker hands out anything but the legal moves somewhere along the way.*/
+    public static void checkGenerators(final int depth) {
+        for (final String[] opening : CHECK_OPENINGS) {
+            Board board = Board.createStandardBoard();
+            for (final String move : opening) {
+                board = board.currentPlayer().getLegalMove(
+                        BoardUtils.INSTANCE.getCoordinateAtPosition(move.substring(0, 2)),
+                        BoardUtils.INSTANCE.getCoordinateAtPosition(move.substring(2))).execute();
+            }
+            final long expected = new Perft(Generator.SEARCH_BOARD, 0, false).perft(board, depth).getNodes();
+            for (final Generator generator : Generator.values()) {
+                final long nodes = new Perft(generator, 0, false).perft(board, depth).getNodes();
+                if (nodes != expected) {
+                    throw new RuntimeException(generator + " counts " + nodes + " instead of " + expected + " after " +
+                                               Arrays.toString(opening) + "!");
+                }
+            }
+            System.out.println(Arrays.toString(opening) + ": perft(" + depth + ") = " + expected + " with every generator");
+        }
+    }
+
+    //Checks the generators against each other (see checkGenerators), then counts the standard board with every generator, with and without the cache and threads, and prints the speed of each.
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        checkGenerators(Math.min(depth, CHECK_DEPTH));
+        final Board board = Board.createStandardBoard();
+        for (final Generator generator : Generator.values()) {
+            System.out.println(new Perft(generator, 0, false).perft(board, depth) + " (" + generator + ")");
+            System.out.println(new Perft(generator, DEFAULT_CACHE_BITS, false).perft(board, depth) +
+                               " (" + generator + ", cache)");
+            System.out.println(new Perft(generator, 0, true).perft(board, depth) + " (" + generator + ", parallel)");
+        }
+        for (final Map.Entry<String, Long> rootCount :
+                new Perft(Generator.SEARCH_BOARD, 0, true).divide(board, depth).getDivide().entrySet()) {
+            System.out.println(rootCount.getKey() + ": " + rootCount.getValue());
+        }
+    }
+
+    private static abstract class RootMoveTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        final String label;
+        final int depthLeft;
+
+        RootMoveTask(final String label,
+                     final int depthLeft) {
+            this.label = label;
+            this.depthLeft = depthLeft;
+        }
+
+        @Override
+        protected abstract Long compute();
+
+    }
+
+    public static final class PerftResult {
+
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final Map<String, Long> divide;
+
+        PerftResult(final int depth,
+                    final long nodes,
+                    final long elapsedNanos,
+                    final Map<String, Long> divide) {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.divide = divide;
+        }
+
+        public int getDepth() {
+            return this.depth;
+        }
+
+        public long getNodes() {
+            return this.nodes;
+        }
+
+        public long getElapsedNanos() {
+            return this.elapsedNanos;
+        }
+
+        public long getNodesPerSecond() {
+            return this.elapsedNanos > 0 ? (this.nodes * 1_000_000_000L) / this.elapsedNanos : 0;
+        }
+
+        //The count under every root move, written like e2-e4. Empty unless the result comes from divide.
+        public Map<String, Long> getDivide() {
+            return this.divide;
+        }
+
+        @Override
+        public String toString() {
+            return "perft(" + this.depth + ") = " + this.nodes + " in " + (this.elapsedNanos / 1_000_000) + " ms, " +
+                   getNodesPerSecond() + " nodes/s";
+        }
+
+    }
+
+    /*The cache of counts. Each entry is two longs: the count and depth packed together, and the Zobrist key xor'ed with them.
+    Threads read and write entries without locking; if two threads write the same entry at once, the key no longer matches
+    the data and the entry just reads as a miss, so a torn entry can never give a wrong count.*/
+    private static final class PerftCache {
+
+        private static final int DEPTH_BITS = 6;
+        private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+        private final long[] checks;
+        private final long[] data;
+        private final int mask;
+
+        PerftCache(final int bits) {
+            this.checks = new long[1 << bits];
+            this.data = new long[1 << bits];
+            this.mask = (1 << bits) - 1;
+        }
+
+        //The count of the position at the depth, or -1 if it isn't in the cache.
+        long get(final long key,
+                 final int depth) {
+            final int index = index(key, depth);
+            final long entry = this.data[index];
+            if ((this.checks[index] ^ entry) == key && (entry & DEPTH_MASK) == depth) {
+                return entry >>> DEPTH_BITS;
+            }
+            return -1;
+        }
+
+        void put(final long key,
+                 final int depth,
+                 final long nodes) {
+            final int index = index(key, depth);
+            final long entry = (nodes << DEPTH_BITS) | depth;
+            this.data[index] = entry;
+            this.checks[index] = key ^ entry;
+        }
+
+        private int index(final long key,
+                          final int depth) {
+            return (int) (key ^ (key >>> 32) ^ (depth * 0x9E3779B9L)) & this.mask;
+        }
+
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.chess.engine.board;
+
+import java.util.Arrays;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/*This is the Position class. It's the bitboard representation of the board: one 64 bit long per piece type and alliance
+(12 in total), where bit N is set when that kind of piece stands on tile N. Tile 0 is a8 and tile 63 is h1, the same numbering
+the Tile list uses, so a tile coordinate can be turned into a mask with 1L << coordinate. On top of the piece boards we keep the
+occupancy of each alliance, the side to move, the castling rights and the en passant square. Every Board is built on one of
+these, and the Tile/Piece objects are only kept as an adapter for the GUI.*/
+public class Position {
+
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+
+    static final int NUM_PIECE_TYPES = PieceType.values().length;
+    static final int NUM_PIECE_BOARDS = NUM_PIECE_TYPES * Alliance.values().length;
+    static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    //Castling rights that survive a move touching the tile. Moving the king or a rook, or capturing a rook, loses the rights.
+    protected static final int[] CASTLING_RIGHTS_MASKS = createCastlingRightsMasks();
+
+    protected final long[] pieceBitBoards;
+    protected final long[] allianceBitBoards;
+    protected long occupiedBitBoard;
+    protected Alliance sideToMove;
+    protected int castlingRights;
+    protected int enPassantSquare;
+    protected long zobristKey;
+
+    //The pieces are given by tile, with a bitboard of the tiles that hold one.
+    Position(final Piece[] pieceOnSquare,
+             final long occupiedSquares,
+             final Alliance sideToMove,
+             final Pawn enPassantPawn) {
+        this.pieceBitBoards = new long[NUM_PIECE_BOARDS];
+        this.allianceBitBoards = new long[Alliance.values().length];
+        long squares = occupiedSquares;
+        while (squares != 0) {
+            final Piece piece = pieceOnSquare[Long.numberOfTrailingZeros(squares)];
+            final long mask = 1L << piece.getPiecePosition();
+            this.pieceBitBoards[pieceIndex(piece.getPieceAllegiance(), piece.getPieceType())] |= mask;
+            this.allianceBitBoards[piece.getPieceAllegiance().ordinal()] |= mask;
+            squares &= squares - 1;
+        }
+        this.occupiedBitBoard = this.allianceBitBoards[0] | this.allianceBitBoards[1];
+        this.sideToMove = sideToMove;
+        this.castlingRights = calculateCastlingRights(pieceOnSquare);
+        this.enPassantSquare = calculateEnPassantSquare(enPassantPawn);
+        this.zobristKey = ZobristKeys.calculateKey(this);
+    }
+
+    /*Builds the position that follows a move from the position before it. Only the tiles the move touched are changed: the
+    cleared tiles lose whatever stood on them and the placed pieces are put down (replacing a captured piece if there was one).
+    A castling right can only be lost by moving something to or from the king's or a rook's home tile, so the rights are the
+    parent's rights minus the ones those tiles take away. The Zobrist key is updated the same way: the parent's castling, en
+    passant and side to move numbers and the pieces that leave a tile are xor'ed out, and the new ones xor'ed in.*/
+    Position(final Position parent,
+             final long clearedSquares,
+             final Piece[] placedPieces,
+             final long placedSquares,
+             final Alliance sideToMove,
+             final Pawn enPassantPawn) {
+        this(parent);
+        long key = this.zobristKey ^ ZobristKeys.castlingKey(this.castlingRights) ^ ZobristKeys.enPassantKey(this) ^
+                   ZobristKeys.sideToMoveKey(this.sideToMove);
+        long touchedSquares = clearedSquares | placedSquares;
+        for (int i = 0; i < NUM_PIECE_BOARDS; i++) {
+            long removedPieces = this.pieceBitBoards[i] & touchedSquares;
+            while (removedPieces != 0) {
+                key ^= ZobristKeys.pieceKey(i, Long.numberOfTrailingZeros(removedPieces));
+                removedPieces &= removedPieces - 1;
+            }
+            this.pieceBitBoards[i] &= ~touchedSquares;
+        }
+        this.allianceBitBoards[0] &= ~touchedSquares;
+        this.allianceBitBoards[1] &= ~touchedSquares;
+        long squares = placedSquares;
+        while (squares != 0) {
+            final Piece piece = placedPieces[Long.numberOfTrailingZeros(squares)];
+            final int index = pieceIndex(piece.getPieceAllegiance(), piece.getPieceType());
+            final long mask = 1L << piece.getPiecePosition();
+            this.pieceBitBoards[index] |= mask;
+            this.allianceBitBoards[piece.getPieceAllegiance().ordinal()] |= mask;
+            key ^= ZobristKeys.pieceKey(index, piece.getPiecePosition());
+            squares &= squares - 1;
+        }
+        this.occupiedBitBoard = this.allianceBitBoards[0] | this.allianceBitBoards[1];
+        this.sideToMove = sideToMove;
+        while (touchedSquares != 0) {
+            this.castlingRights &= CASTLING_RIGHTS_MASKS[Long.numberOfTrailingZeros(touchedSquares)];
+            touchedSquares &= touchedSquares - 1;
+        }
+        this.enPassantSquare = calculateEnPassantSquare(enPassantPawn);
+        this.zobristKey = key ^ ZobristKeys.castlingKey(this.castlingRights) ^ ZobristKeys.enPassantKey(this) ^
+                          ZobristKeys.sideToMoveKey(this.sideToMove);
+    }
+
+    //Copy constructor, used when another position (like a search board) needs its own copy of the bitboards.
+    protected Position(final Position other) {
+        this.pieceBitBoards = other.pieceBitBoards.clone();
+        this.allianceBitBoards = other.allianceBitBoards.clone();
+        this.occupiedBitBoard = other.occupiedBitBoard;
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.zobristKey = other.zobristKey;
+    }
+
+    //Index of the piece board for a given alliance and piece type. White boards come first, then black.
+    public static int pieceIndex(final Alliance alliance,
+                                 final PieceType pieceType) {
+        return alliance.ordinal() * NUM_PIECE_TYPES + pieceType.ordinal();
+    }
+
+    public long getPieces(final Alliance alliance,
+                          final PieceType pieceType) {
+        return this.pieceBitBoards[pieceIndex(alliance, pieceType)];
+    }
+
+    public long getAlliancePieces(final Alliance alliance) {
+        return this.allianceBitBoards[alliance.ordinal()];
+    }
+
+    public long getOccupied() {
+        return this.occupiedBitBoard;
+    }
+
+    public long getEmpty() {
+        return ~this.occupiedBitBoard;
+    }
+
+    public Alliance getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    //The en passant square, but only when a pawn of the side to move can capture on it. Otherwise NO_SQUARE.
+    public int getCapturableEnPassantSquare() {
+        if (this.enPassantSquare == NO_SQUARE ||
+            (Attacks.pawnAttacks(opponent(this.sideToMove), this.enPassantSquare) &
+             getPieces(this.sideToMove, PieceType.PAWN)) == 0) {
+            return NO_SQUARE;
+        }
+        return this.enPassantSquare;
+    }
+
+    //The Zobrist key of the position, see ZobristKeys.
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /*Whether the other position has the same pieces on the same tiles, the same side to move, the same castling rights and
+    the same en passant capture. That is what makes two positions the same position in chess.*/
+    boolean isSamePosition(final Position other) {
+        return this.zobristKey == other.zobristKey &&
+               this.sideToMove == other.sideToMove &&
+               this.castlingRights == other.castlingRights &&
+               getCapturableEnPassantSquare() == other.getCapturableEnPassantSquare() &&
+               Arrays.equals(this.pieceBitBoards, other.pieceBitBoards);
+    }
+
+    /*Whether neither side has enough pieces left to ever checkmate: only kings, plus at most one knight or bishop, or plus
+    bishops that all stand on tiles of the same color. Any pawn, rook or queen is always enough.*/
+    public boolean isInsufficientMaterial() {
+        final long pawnsRooksAndQueens = getPieces(Alliance.WHITE, PieceType.PAWN) | getPieces(Alliance.BLACK, PieceType.PAWN) |
+                                         getPieces(Alliance.WHITE, PieceType.ROOK) | getPieces(Alliance.BLACK, PieceType.ROOK) |
+                                         getPieces(Alliance.WHITE, PieceType.QUEEN) | getPieces(Alliance.BLACK, PieceType.QUEEN);
+        if (pawnsRooksAndQueens != 0) {
+            return false;
+        }
+        final long knights = getPieces(Alliance.WHITE, PieceType.KNIGHT) | getPieces(Alliance.BLACK, PieceType.KNIGHT);
+        final long bishops = getPieces(Alliance.WHITE, PieceType.BISHOP) | getPieces(Alliance.BLACK, PieceType.BISHOP);
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & BoardUtils.LIGHT_TILES_MASK) == 0 || (bishops & ~BoardUtils.LIGHT_TILES_MASK) == 0);
+    }
+
+    public boolean isOccupied(final int square) {
+        return (this.occupiedBitBoard & (1L << square)) != 0;
+    }
+
+    //Returns the alliance of the piece standing on the square, or null if the square is empty.
+    public Alliance getAllianceAt(final int square) {
+        final long mask = 1L << square;
+        if ((this.allianceBitBoards[Alliance.WHITE.ordinal()] & mask) != 0) {
+            return Alliance.WHITE;
+        }
+        if ((this.allianceBitBoards[Alliance.BLACK.ordinal()] & mask) != 0) {
+            return Alliance.BLACK;
+        }
+        return null;
+    }
+
+    //Returns the type of the piece standing on the square, or null if the square is empty.
+    public PieceType getPieceTypeAt(final int square) {
+        final long mask = 1L << square;
+        if ((this.occupiedBitBoard & mask) == 0) {
+            return null;
+        }
+        for (int i = 0; i < NUM_PIECE_BOARDS; i++) {
+            if ((this.pieceBitBoards[i] & mask) != 0) {
+                return PIECE_TYPES[i % NUM_PIECE_TYPES];
+            }
+        }
+        throw new RuntimeException("Should not reach here! occupancy and piece boards are out of sync on " + square);
+    }
+
+    //Whether a piece of the given alliance attacks the square.
+    public boolean isSquareAttacked(final int square,
+                                    final Alliance byAlliance) {
+        return attackersOf(square, byAlliance, this.occupiedBitBoard) != 0;
+    }
+
+    //The pieces of the given alliance that attack the square, as a bitboard.
+    public long attackersOf(final int square,
+                            final Alliance byAlliance) {
+        return attackersOf(square, byAlliance, this.occupiedBitBoard);
+    }
+
+    /*Same as above, as if the given tiles were occupied. We don't need the attacker's moves for this: we look from the square
+    outwards instead. A knight a knight's jump away attacks the square, a rook or queen on a rook ray from it attacks it, and so
+    on. Pawns attack diagonally forwards, so a pawn attacks the square when a pawn of the other alliance standing on the square
+    would attack the pawn.*/
+    long attackersOf(final int square,
+                     final Alliance byAlliance,
+                     final long occupied) {
+        final long queens = getPieces(byAlliance, PieceType.QUEEN);
+        return (Attacks.pawnAttacks(opponent(byAlliance), square) & getPieces(byAlliance, PieceType.PAWN)) |
+               (Attacks.knightAttacks(square) & getPieces(byAlliance, PieceType.KNIGHT)) |
+               (Attacks.kingAttacks(square) & getPieces(byAlliance, PieceType.KING)) |
+               (Attacks.bishopAttacks(square, occupied) & (getPieces(byAlliance, PieceType.BISHOP) | queens)) |
+               (Attacks.rookAttacks(square, occupied) & (getPieces(byAlliance, PieceType.ROOK) | queens));
+    }
+
+    public int getKingSquare(final Alliance alliance) {
+        return Long.numberOfTrailingZeros(getPieces(alliance, PieceType.KING));
+    }
+
+    public boolean isKingSideCastleCapable(final Alliance alliance) {
+        return (this.castlingRights & (alliance.isWhite() ? WHITE_KING_SIDE_CASTLE : BLACK_KING_SIDE_CASTLE)) != 0;
+    }
+
+    public boolean isQueenSideCastleCapable(final Alliance alliance) {
+        return (this.castlingRights & (alliance.isWhite() ? WHITE_QUEEN_SIDE_CASTLE : BLACK_QUEEN_SIDE_CASTLE)) != 0;
+    }
+
+    static Alliance opponent(final Alliance alliance) {
+        return alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+    }
+
+    //The square the pawn jumped over, which is the square an en passant capture lands on.
+    private static int calculateEnPassantSquare(final Pawn enPassantPawn) {
+        return enPassantPawn != null ?
+                enPassantPawn.getPiecePosition() +
+                (enPassantPawn.getPieceAllegiance().getOppositeDirection() * BoardUtils.NUM_TILES_PER_ROW) : NO_SQUARE;
+    }
+
+    /*A side keeps a castling right while its king has not moved from its home tile, the king still says it is capable of castling
+    to that side, and the rook on the matching corner has not moved either. That is the same test WhitePlayer and BlackPlayer do
+    when they build the castle moves, just turned into bits.*/
+    private static int calculateCastlingRights(final Piece[] pieceOnSquare) {
+        return calculateCastlingRights(pieceOnSquare, Alliance.WHITE, 60, 63, 56, WHITE_KING_SIDE_CASTLE, WHITE_QUEEN_SIDE_CASTLE) |
+               calculateCastlingRights(pieceOnSquare, Alliance.BLACK, 4, 7, 0, BLACK_KING_SIDE_CASTLE, BLACK_QUEEN_SIDE_CASTLE);
+    }
+
+    private static int calculateCastlingRights(final Piece[] pieceOnSquare,
+                                               final Alliance alliance,
+                                               final int kingSquare,
+                                               final int kingSideRookSquare,
+                                               final int queenSideRookSquare,
+                                               final int kingSideRight,
+                                               final int queenSideRight) {
+        final Piece piece = pieceOnSquare[kingSquare];
+        if (piece == null || !piece.getPieceType().isKing() || piece.getPieceAllegiance() != alliance ||
+            !piece.isFirstMove()) {
+            return 0;
+        }
+        final King king = (King) piece;
+        int rights = 0;
+        if (king.isKingSideCastleCapable() && isUnmovedRook(pieceOnSquare[kingSideRookSquare], alliance)) {
+            rights |= kingSideRight;
+        }
+        if (king.isQueenSideCastleCapable() && isUnmovedRook(pieceOnSquare[queenSideRookSquare], alliance)) {
+            rights |= queenSideRight;
+        }
+        return rights;
+    }
+
+    private static boolean isUnmovedRook(final Piece piece,
+                                         final Alliance alliance) {
+        return piece != null && piece.getPieceType().isRook() && piece.getPieceAllegiance() == alliance &&
+               piece.isFirstMove();
+    }
+
+    private static int[] createCastlingRightsMasks() {
+        final int[] masks = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(masks, WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE | BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        masks[60] &= ~(WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE);
+        masks[63] &= ~WHITE_KING_SIDE_CASTLE;
+        masks[56] &= ~WHITE_QUEEN_SIDE_CASTLE;
+        masks[4] &= ~(BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        masks[7] &= ~BLACK_KING_SIDE_CASTLE;
+        masks[0] &= ~BLACK_QUEEN_SIDE_CASTLE;
+        return masks;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.player.GameStatus;
+import com.chess.engine.player.Player;
+
+/*This is the SanWriter enum. It writes a move in standard algebraic notation (SAN), the way moves are written down in a game
+record: Nf3, exd5, Rae1, R1e2, e8=Q+, O-O#.
+
+When two pieces of the same type can go to the same tile, SAN adds the column the piece comes from (Rae1), or its row if the
+column doesn't tell them apart (R1e2), or both if neither does. Instead of going through every legal move for each move we write,
+the player files the tiles its moves come from by piece type and destination once per position (see
+Player.getLegalMoveOrigins), so finding the other pieces that could make the same move is one lookup. The check and mate
+suffixes come from the board after the move. Move.toString() keeps the string once it is written, so a move list only ever
+writes each move once.*/
+public enum SanWriter {
+
+    INSTANCE;
+
+    public static String write(final Move move) {
+        if (move == Move.NULL_MOVE) {
+            return "Null Move";
+        }
+        return writeMove(move) + checkSuffix(move);
+    }
+
+    private static String writeMove(final Move move) {
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        if (move.isCastlingMove()) {
+            return BoardUtils.getColumn(to) > BoardUtils.getColumn(from) ? "O-O" : "O-O-O";
+        }
+        final String destination = BoardUtils.INSTANCE.getPositionAtCoordinate(to);
+        final PieceType pieceType = move.getMovedPiece().getPieceType();
+        if (pieceType.isPawn()) {
+            final String pawnMove = move.isAttack() ?
+                    BoardUtils.INSTANCE.getPositionAtCoordinate(from).substring(0, 1) + "x" + destination : destination;
+            return move instanceof Move.PawnPromotion ? pawnMove + "=" + PieceType.QUEEN : pawnMove;
+        }
+        return pieceType + disambiguation(move) + (move.isAttack() ? "x" : "") + destination;
+    }
+
+    //The column, row or whole tile the piece comes from, if another piece of the same type could go to the same tile.
+    private static String disambiguation(final Move move) {
+        final int from = move.getCurrentCoordinate();
+        final long otherOrigins = getPlayer(move).getLegalMoveOrigins(move.getMovedPiece().getPieceType(),
+                move.getDestinationCoordinate()) & ~(1L << from);
+        if (otherOrigins == 0) {
+            return "";
+        }
+        final String origin = BoardUtils.INSTANCE.getPositionAtCoordinate(from);
+        if ((otherOrigins & BoardUtils.COLUMN_MASKS[BoardUtils.getColumn(from)]) == 0) {
+            return origin.substring(0, 1);
+        }
+        if ((otherOrigins & BoardUtils.ROW_MASKS[BoardUtils.getRow(from)]) == 0) {
+            return origin.substring(1);
+        }
+        return origin;
+    }
+
+    //Only a move of the player whose turn it is can be made, so only those get a check or mate sign.
+    private static String checkSuffix(final Move move) {
+        final Board board = move.getBoard();
+        if (move.getMovedPiece().getPieceAllegiance() != board.currentPlayer().getAlliance()) {
+            return "";
+        }
+        final Player opponent = move.execute().currentPlayer();
+        if (!opponent.isInCheck()) {
+            return "";
+        }
+        return opponent.getGameStatus() == GameStatus.CHECKMATE ? "#" : "+";
+    }
+
+    private static Player getPlayer(final Move move) {
+        final Board board = move.getBoard();
+        return move.getMovedPiece().getPieceAllegiance().choosePlayerByAlliance(board.whitePlayer(), board.blackPlayer());
+    }
+
+}
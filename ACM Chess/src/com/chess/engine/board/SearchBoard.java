@@ -0,0 +1,280 @@
+package com.chess.engine.board;
+
+import java.util.Arrays;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Bishop;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.Queen;
+import com.chess.engine.pieces.Rook;
+
+/*This is the SearchBoard class. A Board is immutable, so every Move.execute() has to build a whole new Board (a builder map,
+64 tiles, two piece lists and the legal moves of both players). That is fine for the GUI, but a search only ever goes down one
+move and comes back up again, so it doesn't need a new board for every node. A SearchBoard is a mutable Position: makeMove
+changes the bitboards and the Zobrist key in place and remembers what it needs to take the move back on a small undo stack,
+and unmakeMove puts everything back the way it was. Nothing is allocated per move.
+
+A SearchBoard is made from a Board at the root of the search and can be turned back into a Board with toBoard(). It is not
+thread safe, every search thread needs its own.*/
+public final class SearchBoard extends Position {
+
+    private static final int NO_PIECE = -1;
+    private static final int INITIAL_UNDO_CAPACITY = 128;
+
+    //Packed undo information, see packUndo. The captured piece index is stored with an offset of one so NO_PIECE fits in 4 bits.
+    private static final int FROM_SHIFT = 0;
+    private static final int TO_SHIFT = 6;
+    private static final int MOVED_PIECE_SHIFT = 12;
+    private static final int CAPTURED_PIECE_SHIFT = 16;
+    private static final int CAPTURE_SQUARE_SHIFT = 20;
+    private static final int PROMOTION_FLAG = 1 << 26;
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+
+    private static final int WHITE_PAWN = pieceIndex(Alliance.WHITE, PieceType.PAWN);
+    private static final int BLACK_PAWN = pieceIndex(Alliance.BLACK, PieceType.PAWN);
+    private static final int WHITE_KING = pieceIndex(Alliance.WHITE, PieceType.KING);
+    private static final int BLACK_KING = pieceIndex(Alliance.BLACK, PieceType.KING);
+
+    private final int[] pieceOnSquare;
+    private int[] undoMoves;
+    private int[] undoCastlingRights;
+    private int[] undoEnPassantSquares;
+    private long[] undoZobristKeys;
+    private int undoDepth;
+
+    public SearchBoard(final Board board) {
+        super(board.getPosition());
+        this.pieceOnSquare = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(this.pieceOnSquare, NO_PIECE);
+        for (int i = 0; i < NUM_PIECE_BOARDS; i++) {
+            long pieces = this.pieceBitBoards[i];
+            while (pieces != 0) {
+                this.pieceOnSquare[Long.numberOfTrailingZeros(pieces)] = i;
+                pieces &= pieces - 1;
+            }
+        }
+        this.undoMoves = new int[INITIAL_UNDO_CAPACITY];
+        this.undoCastlingRights = new int[INITIAL_UNDO_CAPACITY];
+        this.undoEnPassantSquares = new int[INITIAL_UNDO_CAPACITY];
+        this.undoZobristKeys = new long[INITIAL_UNDO_CAPACITY];
+        this.undoDepth = 0;
+    }
+
+    //How many moves have been made on this board that haven't been taken back yet.
+    public int getPly() {
+        return this.undoDepth;
+    }
+
+    //Same answer as Position.getPieceTypeAt, but looked up in the board array instead of searching the piece boards.
+    @Override
+    public PieceType getPieceTypeAt(final int square) {
+        final int piece = this.pieceOnSquare[square];
+        return piece == NO_PIECE ? null : PIECE_TYPES[piece % NUM_PIECE_TYPES];
+    }
+
+    //Makes a move encoded with MoveEncoding, like the ones MoveGenerator adds to a MoveList.
+    public void makeMove(final int move) {
+        makeMove(MoveEncoding.getFrom(move), MoveEncoding.getTo(move));
+    }
+
+    public void makeMove(final Move move) {
+        makeMove(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+    }
+
+    /*Makes the move of the piece on the from tile to the to tile. The move has to be one the piece is allowed to make in this
+    position; nothing is checked here, just like Move.execute(). What kind of move it is comes from the board: a pawn landing
+    on the en passant square captures en passant, a king moving two columns castles and takes its rook with it, and a pawn
+    reaching the last row is promoted to a queen (the only promotion the engine makes).*/
+    public void makeMove(final int from,
+                         final int to) {
+        final int movedPiece = this.pieceOnSquare[from];
+        int capturedPiece = this.pieceOnSquare[to];
+        int captureSquare = to;
+        if (isEnPassantCapture(movedPiece, to)) {
+            captureSquare = to + (this.sideToMove.getOppositeDirection() * BoardUtils.NUM_TILES_PER_ROW);
+            capturedPiece = this.pieceOnSquare[captureSquare];
+        }
+        ensureUndoCapacity();
+        this.undoCastlingRights[this.undoDepth] = this.castlingRights;
+        this.undoEnPassantSquares[this.undoDepth] = this.enPassantSquare;
+        this.undoZobristKeys[this.undoDepth] = this.zobristKey;
+        //The pieces are xor'ed in and out of the key by putPiece and removePiece, the rest is done here.
+        this.zobristKey ^= ZobristKeys.castlingKey(this.castlingRights) ^ ZobristKeys.enPassantKey(this) ^
+                           ZobristKeys.sideToMoveKey(this.sideToMove);
+
+        if (capturedPiece != NO_PIECE) {
+            removePiece(capturedPiece, captureSquare);
+        }
+        removePiece(movedPiece, from);
+        int undo = packUndo(from, to, movedPiece, capturedPiece, captureSquare);
+        if (isPawn(movedPiece) && isLastRow(to)) {
+            putPiece(pieceIndex(this.sideToMove, PieceType.QUEEN), to);
+            undo |= PROMOTION_FLAG;
+        } else {
+            putPiece(movedPiece, to);
+        }
+        if (isKing(movedPiece) && Math.abs(to - from) == 2) {
+            moveCastleRook(from, to);
+        }
+
+        this.enPassantSquare = isPawn(movedPiece) && Math.abs(to - from) == 2 * BoardUtils.NUM_TILES_PER_ROW ?
+                (from + to) / 2 : NO_SQUARE;
+        this.castlingRights &= CASTLING_RIGHTS_MASKS[from] & CASTLING_RIGHTS_MASKS[to];
+        this.sideToMove = opponent(this.sideToMove);
+        this.zobristKey ^= ZobristKeys.castlingKey(this.castlingRights) ^ ZobristKeys.enPassantKey(this) ^
+                           ZobristKeys.sideToMoveKey(this.sideToMove);
+        this.undoMoves[this.undoDepth++] = undo;
+    }
+
+    //Takes back the last move made with makeMove.
+    public void unmakeMove() {
+        if (this.undoDepth == 0) {
+            throw new RuntimeException("There is no move to take back!");
+        }
+        final int undo = this.undoMoves[--this.undoDepth];
+        final int from = (undo >>> FROM_SHIFT) & SQUARE_MASK;
+        final int to = (undo >>> TO_SHIFT) & SQUARE_MASK;
+        final int movedPiece = (undo >>> MOVED_PIECE_SHIFT) & PIECE_MASK;
+        final int capturedPiece = ((undo >>> CAPTURED_PIECE_SHIFT) & PIECE_MASK) - 1;
+        final int captureSquare = (undo >>> CAPTURE_SQUARE_SHIFT) & SQUARE_MASK;
+
+        this.sideToMove = opponent(this.sideToMove);
+        if (isKing(movedPiece) && Math.abs(to - from) == 2) {
+            moveCastleRook(to, from);
+        }
+        removePiece(this.pieceOnSquare[to], to);
+        putPiece(movedPiece, from);
+        if (capturedPiece != NO_PIECE) {
+            putPiece(capturedPiece, captureSquare);
+        }
+        this.castlingRights = this.undoCastlingRights[this.undoDepth];
+        this.enPassantSquare = this.undoEnPassantSquares[this.undoDepth];
+        this.zobristKey = this.undoZobristKeys[this.undoDepth];
+    }
+
+    /*Turns the search board back into an immutable Board. The bitboards don't remember everything the pieces do, so a couple
+    of flags are worked out from what they do remember: a pawn still on its starting row has never moved, a rook has not moved
+    while its side can still castle with it, and a king has not moved while its side can still castle at all. Knights, bishops
+    and queens come back as moved pieces, which makes no difference to how they move.*/
+    public Board toBoard() {
+        final Board.Builder builder = new Board.Builder();
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int piece = this.pieceOnSquare[square];
+            if (piece != NO_PIECE) {
+                builder.setPiece(createPiece(piece, square));
+            }
+        }
+        builder.setMoveMaker(this.sideToMove);
+        if (this.enPassantSquare != NO_SQUARE) {
+            //The pawn that jumped belongs to the side that just moved, and stands one row past the square it jumped over.
+            final Alliance jumpedAlliance = opponent(this.sideToMove);
+            builder.setEnPassantPawn(new Pawn(jumpedAlliance,
+                    this.enPassantSquare + (jumpedAlliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW), false));
+        }
+        return builder.build();
+    }
+
+    private Piece createPiece(final int piece,
+                              final int square) {
+        final Alliance alliance = piece < NUM_PIECE_TYPES ? Alliance.WHITE : Alliance.BLACK;
+        switch (PIECE_TYPES[piece % NUM_PIECE_TYPES]) {
+            case PAWN:
+                return new Pawn(alliance, square, (BoardUtils.ROW_MASKS[alliance.isWhite() ? 6 : 1] & (1L << square)) != 0);
+            case KNIGHT:
+                return new Knight(alliance, square, false);
+            case BISHOP:
+                return new Bishop(alliance, square, false);
+            case ROOK:
+                return new Rook(alliance, square, (CASTLING_RIGHTS_MASKS[square] & this.castlingRights) != this.castlingRights);
+            case QUEEN:
+                return new Queen(alliance, square, false);
+            case KING:
+                final boolean kingSide = isKingSideCastleCapable(alliance);
+                final boolean queenSide = isQueenSideCastleCapable(alliance);
+                return new King(alliance, square, kingSide || queenSide, false, kingSide, queenSide);
+            default:
+                throw new RuntimeException("Should not reach here!");
+        }
+    }
+
+    private boolean isEnPassantCapture(final int movedPiece,
+                                       final int to) {
+        return to == this.enPassantSquare && isPawn(movedPiece);
+    }
+
+    //Moves the rook that goes with a castle from the king's from/to tiles. Also used backwards to undo the castle.
+    private void moveCastleRook(final int kingFrom,
+                                final int kingTo) {
+        final int rookFrom;
+        final int rookTo;
+        if (BoardUtils.getColumn(Math.max(kingFrom, kingTo)) == 6) {
+            rookFrom = kingFrom < kingTo ? kingFrom + 3 : kingTo + 1;
+            rookTo = kingFrom < kingTo ? kingFrom + 1 : kingTo + 3;
+        } else if (BoardUtils.getColumn(Math.min(kingFrom, kingTo)) == 2) {
+            rookFrom = kingFrom > kingTo ? kingFrom - 4 : kingTo - 1;
+            rookTo = kingFrom > kingTo ? kingFrom - 1 : kingTo - 4;
+        } else {
+            throw new RuntimeException("Should not reach here! not a castle " + kingFrom + " " + kingTo);
+        }
+        final int rook = this.pieceOnSquare[rookFrom];
+        removePiece(rook, rookFrom);
+        putPiece(rook, rookTo);
+    }
+
+    private void putPiece(final int piece,
+                          final int square) {
+        final long mask = 1L << square;
+        this.pieceBitBoards[piece] |= mask;
+        this.allianceBitBoards[piece / NUM_PIECE_TYPES] |= mask;
+        this.occupiedBitBoard |= mask;
+        this.pieceOnSquare[square] = piece;
+        this.zobristKey ^= ZobristKeys.pieceKey(piece, square);
+    }
+
+    private void removePiece(final int piece,
+                             final int square) {
+        final long mask = ~(1L << square);
+        this.pieceBitBoards[piece] &= mask;
+        this.allianceBitBoards[piece / NUM_PIECE_TYPES] &= mask;
+        this.occupiedBitBoard &= mask;
+        this.pieceOnSquare[square] = NO_PIECE;
+        this.zobristKey ^= ZobristKeys.pieceKey(piece, square);
+    }
+
+    private void ensureUndoCapacity() {
+        if (this.undoDepth == this.undoMoves.length) {
+            final int capacity = this.undoMoves.length * 2;
+            this.undoMoves = Arrays.copyOf(this.undoMoves, capacity);
+            this.undoCastlingRights = Arrays.copyOf(this.undoCastlingRights, capacity);
+            this.undoEnPassantSquares = Arrays.copyOf(this.undoEnPassantSquares, capacity);
+            this.undoZobristKeys = Arrays.copyOf(this.undoZobristKeys, capacity);
+        }
+    }
+
+    private static int packUndo(final int from,
+                                final int to,
+                                final int movedPiece,
+                                final int capturedPiece,
+                                final int captureSquare) {
+        return (from << FROM_SHIFT) | (to << TO_SHIFT) | (movedPiece << MOVED_PIECE_SHIFT) |
+               ((capturedPiece + 1) << CAPTURED_PIECE_SHIFT) | (captureSquare << CAPTURE_SQUARE_SHIFT);
+    }
+
+    private static boolean isPawn(final int piece) {
+        return piece == WHITE_PAWN || piece == BLACK_PAWN;
+    }
+
+    private static boolean isKing(final int piece) {
+        return piece == WHITE_KING || piece == BLACK_KING;
+    }
+
+    private static boolean isLastRow(final int square) {
+        return square < BoardUtils.NUM_TILES_PER_ROW || square >= BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+}
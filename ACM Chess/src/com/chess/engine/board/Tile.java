@@ -1,14 +1,9 @@
 package com.chess.engine.board;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.chess.engine.Alliance;
-import com.chess.engine.pieces.*;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableTable;
-import com.google.common.collect.Table;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
 
 /*This is the Tile class. The reason it has the abstract keyword is mainly because it's a broad concept in the game. With this, it'll be the parent of two classes:
 OccupiedTile, and EmptyTile. These two are more specific so they'll be our subclasses, a.k.a the children of Tile as it'll inherit some methods from Tile to be more based 
@@ -17,9 +12,10 @@ abstract public class Tile {
 
     protected final int tileCoordinate;
 
-    private static final Map<Integer, EmptyTile> EMPTY_TILES = createAllPossibleEmptyTiles();
+    private static final EmptyTile[] EMPTY_TILES = createAllPossibleEmptyTiles();
 
-    private static final Table<Integer, Piece, OccupiedTile> OCCUPIED_TILES = createAllPossibleOccupiedTiles();
+    //Indexed like the pieces in PieceUtils: [alliance][piece type][state][tile].
+    private static final OccupiedTile[][][][] OCCUPIED_TILES = createAllPossibleOccupiedTiles();
 
     private Tile(final int coordinate) {
         this.tileCoordinate = coordinate;
@@ -33,13 +29,12 @@ abstract public class Tile {
                                   final Piece piece) {
 
         if(piece == null) {
-            return EMPTY_TILES.get(coordinate);
+            return EMPTY_TILES[coordinate];
         }
 
-        final OccupiedTile cachedOccupiedTile = OCCUPIED_TILES.get(coordinate, piece);
-
-        if(cachedOccupiedTile != null) {
-            return cachedOccupiedTile;
+        if(piece.getPiecePosition() == coordinate) {
+            return OCCUPIED_TILES[piece.getPieceAllegiance().ordinal()][piece.getPieceType().ordinal()]
+                                 [piece.getStateIndex()][coordinate];
         }
 
         return new OccupiedTile(coordinate, piece);
@@ -48,69 +43,33 @@ abstract public class Tile {
     public int getTileCoordinate() {
         return this.tileCoordinate;
     }
-    /*As the name suggests, this creates all of the possible empty tiles by iterating through the board and putting a new empty tile by having emptyTileMap add the 
-    empty tile to its list.*/
-    private static Map<Integer,EmptyTile> createAllPossibleEmptyTiles() {
-        final Map<Integer, EmptyTile> emptyTileMap = new HashMap<>();
+    /*As the name suggests, this creates all of the possible empty tiles by iterating through the board and putting a new empty tile
+    in the array at its coordinate.*/
+    private static EmptyTile[] createAllPossibleEmptyTiles() {
+        final EmptyTile[] emptyTiles = new EmptyTile[BoardUtils.NUM_TILES];
         for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            emptyTileMap.put(i, new EmptyTile(i));
+            emptyTiles[i] = new EmptyTile(i);
         }
-        return ImmutableMap.copyOf(emptyTileMap);
+        return emptyTiles;
     }
 
-    /*Similar to the previous method above, but this time we'll add the possible tiles that are occupied by chess pieces. A bunch of different pieces are added*/
-    private static Table<Integer, Piece, OccupiedTile> createAllPossibleOccupiedTiles() {
-
-        final Table<Integer, Piece, OccupiedTile> occupiedTileTable = HashBasedTable.create();
-
+    /*Similar to the previous method above, but this time we'll add the possible tiles that are occupied by chess pieces. Every piece
+    PieceUtils keeps, in every state, gets a tile, so a board is made up only of tiles that already exist.*/
+    private static OccupiedTile[][][][] createAllPossibleOccupiedTiles() {
+        final PieceType[] pieceTypes = PieceType.values();
+        final OccupiedTile[][][][] occupiedTiles = new OccupiedTile[Alliance.values().length][pieceTypes.length][][];
         for (final Alliance alliance : Alliance.values()) {
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final Knight whiteKnightFirstMove = new Knight(alliance, i, true);
-                final Knight whiteKnightMoved = new Knight(alliance, i, false);
-                occupiedTileTable.put(i, whiteKnightFirstMove, new OccupiedTile(i, whiteKnightFirstMove));
-                occupiedTileTable.put(i, whiteKnightMoved, new OccupiedTile(i, whiteKnightMoved));
-            }
-
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final Bishop whiteBishopFirstMove = new Bishop(alliance, i, true);
-                final Bishop whiteBishopMoved = new Bishop(alliance, i, false);
-                occupiedTileTable.put(i, whiteBishopFirstMove, new OccupiedTile(i, whiteBishopFirstMove));
-                occupiedTileTable.put(i, whiteBishopMoved, new OccupiedTile(i, whiteBishopMoved));
-            }
-
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final Rook whiteRookFirstMove = new Rook(alliance, i, true);
-                final Rook whiteRookMoved = new Rook(alliance, i, false);
-                occupiedTileTable.put(i, whiteRookFirstMove, new OccupiedTile(i, whiteRookFirstMove));
-                occupiedTileTable.put(i, whiteRookMoved, new OccupiedTile(i, whiteRookMoved));
+            for (final PieceType pieceType : pieceTypes) {
+                final OccupiedTile[][] stateTiles = new OccupiedTile[PieceUtils.getNumStates(pieceType)][BoardUtils.NUM_TILES];
+                for (int state = 0; state < stateTiles.length; state++) {
+                    for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                        stateTiles[state][i] = new OccupiedTile(i, PieceUtils.INSTANCE.getPiece(alliance, pieceType, state, i));
+                    }
+                }
+                occupiedTiles[alliance.ordinal()][pieceType.ordinal()] = stateTiles;
             }
-
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final Queen whiteQueenFirstMove = new Queen(alliance, i, true);
-                final Queen whiteQueenMoved = new Queen(alliance, i, false);
-                occupiedTileTable.put(i, whiteQueenFirstMove, new OccupiedTile(i, whiteQueenFirstMove));
-                occupiedTileTable.put(i, whiteQueenMoved, new OccupiedTile(i, whiteQueenMoved));
-            }
-
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final Pawn whitePawnFirstMove = new Pawn(alliance, i, true);
-                final Pawn whitePawnMoved = new Pawn(alliance, i, false);
-                occupiedTileTable.put(i, whitePawnFirstMove, new OccupiedTile(i, whitePawnFirstMove));
-                occupiedTileTable.put(i, whitePawnMoved, new OccupiedTile(i, whitePawnMoved));
-            }
-
-            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final King whiteKingFirstMove = new King(alliance, i, true, true);
-                final King whiteKingMoved = new King(alliance, i, false, false, false, false);
-                final King whiteKingMovedCastled = new King(alliance, i, false, true, false, false);
-                occupiedTileTable.put(i, whiteKingFirstMove, new OccupiedTile(i, whiteKingFirstMove));
-                occupiedTileTable.put(i, whiteKingMoved, new OccupiedTile(i, whiteKingMoved));
-                occupiedTileTable.put(i, whiteKingMovedCastled, new OccupiedTile(i, whiteKingMovedCastled));
-            }
-
         }
-
-        return ImmutableTable.copyOf(occupiedTileTable);
+        return occupiedTiles;
     }
 
     //EmptyTile is a subclass of Tile, which means it's the child of Tile, and it has some methods that Tile has such as isTileOccupied and getPiece method.
@@ -0,0 +1,77 @@
+package com.chess.engine.board;
+
+import java.util.Random;
+
+import com.chess.engine.Alliance;
+
+/*This is the ZobristKeys enum. It holds the random numbers used to give every position a 64 bit key: one number for every kind
+of piece on every tile, one for black to move, one for every combination of castling rights and one for every column an en
+passant capture can land on. The key of a position is all of the numbers that apply to it xor'ed together. Because xor undoes
+itself, a move only has to xor out what it takes away and xor in what it puts down, so the key is kept up to date as moves are
+made instead of being worked out again (see Position and SearchBoard).
+
+Two different positions can get the same key, but with 64 bits that's rare enough to ignore for a cache. The numbers come from
+a fixed seed so a position gets the same key every time the program runs.*/
+public enum ZobristKeys {
+
+    INSTANCE;
+
+    private static final long SEED = 20261016L;
+
+    private static final long[][] PIECE_KEYS = new long[Position.NUM_PIECE_BOARDS][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES_PER_ROW];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        final Random random = new Random(SEED);
+        for (final long[] pieceKeys : PIECE_KEYS) {
+            for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                pieceKeys[square] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING_KEYS.length; i++) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    //The number for the piece board (see Position.pieceIndex) standing on the tile.
+    public static long pieceKey(final int pieceIndex,
+                                final int square) {
+        return PIECE_KEYS[pieceIndex][square];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long sideToMoveKey(final Alliance sideToMove) {
+        return sideToMove.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    /*The en passant column only goes into the key when a pawn can actually capture en passant. Otherwise the same position
+    reached with and without a pawn jump would get two different keys.*/
+    public static long enPassantKey(final Position position) {
+        final int enPassantSquare = position.getCapturableEnPassantSquare();
+        return enPassantSquare != Position.NO_SQUARE ? EN_PASSANT_KEYS[BoardUtils.getColumn(enPassantSquare)] : 0L;
+    }
+
+    //Works the key of the position out from scratch.
+    public static long calculateKey(final Position position) {
+        long key = 0L;
+        for (int i = 0; i < Position.NUM_PIECE_BOARDS; i++) {
+            long pieces = position.pieceBitBoards[i];
+            while (pieces != 0) {
+                key ^= PIECE_KEYS[i][Long.numberOfTrailingZeros(pieces)];
+                pieces &= pieces - 1;
+            }
+        }
+        return key ^ castlingKey(position.getCastlingRights()) ^ enPassantKey(position) ^
+               sideToMoveKey(position.getSideToMove());
+    }
+
+}
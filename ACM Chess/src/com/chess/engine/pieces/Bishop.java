@@ -1,18 +1,14 @@
 package com.chess.engine.pieces;
 
 //All imports needed for this class to work. Most are imports from other classes. 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.Alliance;
-import com.google.common.collect.ImmutableList;
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
 
 public final class Bishop extends Piece {
-	
-	//Move coordinates that the piece can move. Look up wikipedia and count the tiles to get to the dot.
-	//That's your coordinates after counting them
-    private final static int[] CANDIDATE_MOVE_COORDINATES = {-9, -7, 7, 9};
 
     //The constructors of the Bishop class. It has the variables that's needed for a piece like
     //the alliance, piece type, position of the piece, and whether if it made the first move or not.
@@ -30,45 +26,19 @@ public final class Bishop extends Piece {
     
     /*
      * This is the calculateLegalMoves method. As the name suggests, the purpose
-     * of this method is to make a legal move for the bishop piece. Explanation of the exclusions are below, but 
-     * it basically checks that for every tile that it can move based on CANDIDATE_MOVE_COORDINATE (Info
-     * about CANDIDATE_MOVE_COORDINATE is above), we check if there's a tile that the piece can move to by using
-     * a while loop for every tile that the piece can move being valid. Within the first while loop, we basically
-     * check for the columns so the algorithm for the move coordinates won't fall. If there's no tile occupied on the tile
-     * that the chess will go to, then a new MajorMove is created, mainly for non-attacking movement (View MajorMove
-     * in Move class), and goes to a legalMove. Else, it initializes two variables: pieceAtDestionation, and pieceAlliance, which 
-     * pieceDestination is a Piece variable, and pieceAlliance is an Alliance variable. It then checks
-     * if the alliance of the current piece is the opposite, we do an attack move with MajorAttackMove
-     * object being created and being added to the list of legal moves that are immutable.*/
+     * of this method is to make a legal move for the bishop piece. Instead of stepping along each diagonal one tile at a
+     * time and checking the column exclusions, we look up every tile the bishop attacks in the magic bitboard tables (see
+     * Attacks), given the tiles that are occupied on the board. Empty tiles become a MajorMove, tiles with an enemy piece
+     * become a MajorAttackMove, and tiles with one of our own pieces are skipped.*/
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isFirstColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate) ||
-                    isEighthColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate)) {
-                    break;
-                }
-                candidateDestinationCoordinate += currentCandidateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    }
-                    else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAllegiance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                    pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMajorMoves(board, Attacks.bishopAttacks(this.piecePosition, board.getPosition().getOccupied()));
+    }
+
+    //The same attacked tiles, keeping only the ones holding an enemy piece.
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        return createMajorAttackMoves(board, Attacks.bishopAttacks(this.piecePosition, board.getPosition().getOccupied()));
     }
 
     //Location bonus for the bishop
@@ -90,18 +60,4 @@ public final class Bishop extends Piece {
         return this.pieceType.toString();
     }
 
-    //Column exclusions. Based on the following move coordinates where it makes the algorithm of the
-    //bishop movement fall off. Used within the for loop to see if the piece has to skip those to prevent it 
-    //from being a legal move. (Applies to other parts of chess piece classes, and depends on the column for the
-    //chess pieces.
-    private static boolean isFirstColumnExclusion(final int currentCandidate,
-                                                  final int candidateDestinationCoordinate) {
-        return (BoardUtils.INSTANCE.FIRST_COLUMN.get(candidateDestinationCoordinate) &&
-                ((currentCandidate == -9) || (currentCandidate == 7)));
-    }
-
-    private static boolean isEighthColumnExclusion(final int currentCandidate,
-                                                   final int candidateDestinationCoordinate) {
-        return BoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidateDestinationCoordinate) &&
-                        ((currentCandidate == -7) || (currentCandidate == 9));
-    }
\ No newline at end of file
+}
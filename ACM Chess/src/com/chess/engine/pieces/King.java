@@ -1,17 +1,13 @@
 package com.chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import com.chess.engine.Alliance;
-import com.google.common.collect.ImmutableList; //<- This is when we need Guava. Right click your project folder
-//then click on build path. Next, click on configure build path. Then, go to java build path, and highlight on 
-//module path, 
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
 
 public final class King extends Piece {
 
-	//candidate move coordinates based on the tiles that the king can move at.
-    private final static int[] CANDIDATE_MOVE_COORDINATES = { -9, -8, -7, -1, 1, 7, 8, 9 };
     /*
      * Castling is a special move in chess. Consists of moving one's king two squares towards a rook on
      * the same rank and then moving the rook to the square that the king pass over. Only permitted
@@ -61,41 +57,19 @@ public final class King extends Piece {
     
     /*
      * This is the calculateLegalMoves method. As the name suggests, the purpose
-     * of this method is to make a legal move for the king piece. Explanation of the exclusions are below, but 
-     * it basically checks that for every tile that it can move based on CANDIDATE_MOVE_COORDINATE (Info
-     * about CANDIDATE_MOVE_COORDINATE is above), we check if there's a tile that the piece can move to by using
-     * a while loop for every tile that the piece can move being valid. Within the first while loop, we basically
-     * check for the columns so the algorithm for the move coordinates won't fall. If there's no tile occupied on the tile
-     * that the chess will go to, then a new MajorMove is created, mainly for non-attacking movement (View MajorMove
-     * in Move class), and goes to a legalMove. Else, it initializes two variables: pieceAtDestionation, and pieceAlliance, which 
-     * pieceDestination is a Piece variable, and pieceAlliance is an Alliance variable. It then checks
-     * if the alliance of the current piece is the opposite, we do an attack move with MajorAttackMove
-     * object being created and being added to the list of legal moves that are immutable.*/
+     * of this method is to make a legal move for the king piece. The tiles around every tile of the board are worked
+     * out once in the Attacks tables, so the king doesn't need column exclusions to keep from wrapping around the edge
+     * of the board. Empty tiles become a MajorMove, tiles with an enemy piece become a MajorAttackMove, and tiles with one
+     * of our own pieces are skipped. Castling moves are added by the player (see calculateKingCastles).*/
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            if (isFirstColumnExclusion(this.piecePosition, currentCandidateOffset) ||
-                isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                continue;
-            }
-            final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                }
-                else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAtDestinationAllegiance = pieceAtDestination.getPieceAllegiance();
-                    if (this.pieceAlliance != pieceAtDestinationAllegiance) {
-                        legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                pieceAtDestination));
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMajorMoves(board, Attacks.kingAttacks(this.piecePosition));
+    }
+
+    //Castles never capture, so the king's tactical moves are just its captures.
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        return createMajorAttackMoves(board, Attacks.kingAttacks(this.piecePosition));
     }
     
     //toString() method allows one to make it in a way where we can print out the class in a string format.
@@ -111,10 +85,18 @@ public final class King extends Piece {
         return this.pieceAlliance.kingBonus(this.piecePosition);
     }
 
-    //This method has returns a new King.
+    //The king also keeps whether it has castled and which sides it can castle to in its state.
+    @Override
+    public int getStateIndex() {
+        return super.getStateIndex() | (this.isCastled ? PieceUtils.CASTLED_STATE : 0) |
+               (this.kingSideCastleCapable ? PieceUtils.KING_SIDE_CASTLE_STATE : 0) |
+               (this.queenSideCastleCapable ? PieceUtils.QUEEN_SIDE_CASTLE_STATE : 0);
+    }
+
+    //This method has returns the moved King.
     @Override
     public King movePiece(final Move move) {
-        return new King(this.pieceAlliance, move.getDestinationCoordinate(), false, move.isCastlingMove(), false, false);
+        return PieceUtils.INSTANCE.getMovedKing(move);
     }
 
     //The equals method. In java, we need to override equals method to make it so it can be based on 
@@ -139,22 +121,4 @@ public final class King extends Piece {
     public int hashCode() {
         return (31 * super.hashCode()) + (isCastled ? 1 : 0);
     }
-
-    //Column exclusions. Based on the following move coordinates where it makes the algorithm of the
-    //king movement fall off. Used within the for loop to see if the piece has to skip those to prevent it 
-    //from being a legal move. (Applies to other parts of chess piece classes, and depends on the column for the
-    //chess pieces.
-    private static boolean isFirstColumnExclusion(final int currentCandidate,
-                                                  final int candidateDestinationCoordinate) {
-        return BoardUtils.INSTANCE.FIRST_COLUMN.get(currentCandidate)
-                && ((candidateDestinationCoordinate == -9) || (candidateDestinationCoordinate == -1) ||
-                (candidateDestinationCoordinate == 7));
-    }
-
-    private static boolean isEighthColumnExclusion(final int currentCandidate,
-                                                   final int candidateDestinationCoordinate) {
-        return BoardUtils.INSTANCE.EIGHTH_COLUMN.get(currentCandidate)
-                && ((candidateDestinationCoordinate == -7) || (candidateDestinationCoordinate == 1) ||
-                (candidateDestinationCoordinate == 9));
-    }
-}
\ No newline at end of file
+}
@@ -1,15 +1,13 @@
 package com.chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
 
 public class Knight extends Piece{
 
-	//The candidate coordinates that the knight can move to. 
-    private final static int[] CANDIDATE_MOVE_COORDINATES = { -17, -15, -10, -6, 6, 10, 15, 17 };
-
     //Constructors for the knight. initializes the alliance of the piece, position of it, the piece type, and
     //if the piece does the first move
     public Knight(final Alliance alliance,
@@ -25,42 +23,19 @@ public class Knight extends Piece{
 
     /*
      * This is the calculateLegalMoves method. As the name suggests, the purpose
-     * of this method is to make a legal move for the knight piece. Explanation of the exclusions are below, but 
-     * it basically checks that for every tile that it can move based on CANDIDATE_MOVE_COORDINATE (Info
-     * about CANDIDATE_MOVE_COORDINATE is above), we check if there's a tile that the piece can move to by using
-     * a while loop for every tile that the piece can move being valid. Within the first while loop, we basically
-     * check for the columns so the algorithm for the move coordinates won't fall. If there's no tile occupied on the tile
-     * that the chess will go to, then a new MajorMove is created, mainly for non-attacking movement (View MajorMove
-     * in Move class), and goes to a legalMove. Else, it initializes two variables: pieceAtDestionation, and pieceAlliance, which 
-     * pieceDestination is a Piece variable, and pieceAlliance is an Alliance variable. It then checks
-     * if the alliance of the current piece is the opposite, we do an attack move with MajorAttackMove
-     * object being created and being added to the list of legal moves that are immutable.*/
+     * of this method is to make a legal move for the knight piece. Every tile a knight can jump to from every tile
+     * of the board is worked out once in the Attacks tables, so there are no column exclusions to check here. We look
+     * up the knight's tile and turn it into moves: empty tiles become a MajorMove, tiles with an enemy piece become a
+     * MajorAttackMove, and tiles with one of our own pieces are skipped.*/
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            if(isFirstColumnExclusion(this.piecePosition, currentCandidateOffset) ||
-               isSecondColumnExclusion(this.piecePosition, currentCandidateOffset) ||
-               isSeventhColumnExclusion(this.piecePosition, currentCandidateOffset) ||
-               isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                continue;
-            }
-            final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAtDestinationAllegiance = pieceAtDestination.getPieceAllegiance();
-                    if (this.pieceAlliance != pieceAtDestinationAllegiance) {
-                        legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                pieceAtDestination));
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMajorMoves(board, Attacks.knightAttacks(this.piecePosition));
+    }
+
+    //The same attacked tiles, keeping only the ones holding an enemy piece.
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        return createMajorAttackMoves(board, Attacks.knightAttacks(this.piecePosition));
     }
 
     //Location bonus for the knight piece
@@ -82,30 +57,4 @@ public class Knight extends Piece{
         return this.pieceType.toString();
     }
 
-    //Column exclusions. Based on the following move coordinates where it makes the algorithm of the
-    //Knight movement fall off. Used within the for loop to see if the piece has to skip those to prevent it 
-    //from being a legal move. (Applies to other parts of chess piece classes, and depends on the column for the
-    //chess pieces.
-    private static boolean isFirstColumnExclusion(final int currentPosition,
-                                                  final int candidateOffset) {
-        return BoardUtils.INSTANCE.FIRST_COLUMN.get(currentPosition) && ((candidateOffset == -17) ||
-                (candidateOffset == -10) || (candidateOffset == 6) || (candidateOffset == 15));
-    }
-
-    private static boolean isSecondColumnExclusion(final int currentPosition,
-                                                   final int candidateOffset) {
-        return BoardUtils.INSTANCE.SECOND_COLUMN.get(currentPosition) && ((candidateOffset == -10) || (candidateOffset == 6));
-    }
-
-    private static boolean isSeventhColumnExclusion(final int currentPosition,
-                                                    final int candidateOffset) {
-        return BoardUtils.INSTANCE.SEVENTH_COLUMN.get(currentPosition) && ((candidateOffset == -6) || (candidateOffset == 10));
-    }
-
-    private static boolean isEighthColumnExclusion(final int currentPosition,
-                                                   final int candidateOffset) {
-        return BoardUtils.INSTANCE.EIGHTH_COLUMN.get(currentPosition) && ((candidateOffset == -15) || (candidateOffset == -6) ||
-                (candidateOffset == 10) || (candidateOffset == 17));
-    }
-
-}
\ No newline at end of file
+}
@@ -1,22 +1,22 @@
 package com.chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Attacks;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.*;
+import com.chess.engine.board.Position;
 import com.google.common.collect.ImmutableList;
 
 public final class Pawn
         extends Piece {
 
-	//Coordinates where you can move the pawn piece. Based on where the tiles where the piece can move.
-	//More info on wikipedia.
-    private final static int[] CANDIDATE_MOVE_COORDINATES = {8, 16, 7, 9};
+	//The rows pawns start on, as bitboards. Black pawns start on row 1 (the seventh rank) and white pawns on row 6.
+    private final static long BLACK_STARTING_ROW = BoardUtils.ROW_MASKS[1];
+    private final static long WHITE_STARTING_ROW = BoardUtils.ROW_MASKS[6];
 
     //Constructors of the pawn. As usual, they initialize the alliance it's on, the position of the piece,
     //the type of piece, and if it made the first move or not.
@@ -39,112 +39,86 @@ public final class Pawn
 
     /*
      * This is the calculateLegalMoves method. As the name suggests, the purpose
-     * of this method is to make a legal move for the Pawn piece. Explanation of the exclusions are below, but 
-     * it basically checks that for every tile that it can move based on CANDIDATE_MOVE_COORDINATE (Info
-     * about CANDIDATE_MOVE_COORDINATE is above), we check if there's a tile that the piece can move to by using
-     * a while loop for every tile that the piece can move being valid. Within the first while loop, we basically
-     * check for the columns so the algorithm for the move coordinates won't fall. If there's no tile occupied on the tile
-     * that the chess will go to, then a new MajorMove is created, mainly for non-attacking movement (View MajorMove
-     * in Move class), and goes to a legalMove. Else, it initializes two variables: pieceAtDestionation, and pieceAlliance, which 
-     * pieceDestination is a Piece variable, and pieceAlliance is an Alliance variable. It then checks
-     * if the alliance of the current piece is the opposite, we do an attack move with MajorAttackMove
-     * object being created and being added to the list of legal moves that are immutable. However, due to this
-     * being a pawn, we also have to check if it can do an En Passant Move. En Passant is a special move that
-     * the pawn piece can do. A pawn may capture en passant a horizontally adjacent enemy pawn that has just advanced two squares in one move.[2][3] 
-     * The capturing pawn moves to the square that the enemy pawn passed over, as if the enemy pawn had advanced only 
-     * one square. Such a capture is permitted only on the turn immediately after the two-square advance; 
-     * it cannot be done on a later turn.*/
+     * of this method is to make a legal move for the Pawn piece. A pawn moves differently from how it attacks, so we do
+     * this in two parts. First the pushes: the pawn can move one tile forward if that tile is empty, and if it hasn't moved
+     * yet and is still on its starting row, it can jump two tiles forward if both tiles are empty (a PawnJump). Then the
+     * attacks: the diagonal tiles a pawn attacks from every tile are worked out once in the Attacks tables, so there are no
+     * column exclusions here. Every attacked tile holding an enemy piece becomes a PawnAttackMove. Any move landing on the
+     * last row is wrapped in a PawnPromotion. However, due to this being a pawn, we also have to check if it can do an En
+     * Passant Move. En Passant is a special move that the pawn piece can do. A pawn may capture en passant a horizontally
+     * adjacent enemy pawn that has just advanced two squares in one move. The capturing pawn moves to the square that the
+     * enemy pawn passed over, as if the enemy pawn had advanced only one square. Such a capture is permitted only on the
+     * turn immediately after the two-square advance; it cannot be done on a later turn. The position keeps the square the
+     * enemy pawn passed over, so all we need to check is whether our pawn attacks it.*/
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            int candidateDestinationCoordinate =
-                    this.piecePosition + (this.pieceAlliance.getDirection() * currentCandidateOffset);
-            if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                continue;
+        final Position position = board.getPosition();
+        //A pawn has at most four moves: a push, a jump and two attacks.
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builderWithExpectedSize(4);
+        final int forwardOffset = this.pieceAlliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        final int candidateDestinationCoordinate = this.piecePosition + forwardOffset;
+        if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate) &&
+            !position.isOccupied(candidateDestinationCoordinate)) {
+            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
             }
-            if (currentCandidateOffset == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                    legalMoves.add(new PawnPromotion(
-                            new PawnMove(board, this, candidateDestinationCoordinate)));
-                }
-                else {
-                    legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
-                }
+            else {
+                legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
             }
-            else if (currentCandidateOffset == 16 && this.isFirstMove() &&
-                    ((BoardUtils.INSTANCE.SECOND_ROW.get(this.piecePosition) && this.pieceAlliance.isBlack()) ||
-                     (BoardUtils.INSTANCE.SEVENTH_ROW.get(this.piecePosition) && this.pieceAlliance.isWhite()))) {
-                final int behindCandidateDestinationCoordinate =
-                        this.piecePosition + (this.pieceAlliance.getDirection() * 8);
-                if (!board.getTile(candidateDestinationCoordinate).isTileOccupied() &&
-                    !board.getTile(behindCandidateDestinationCoordinate).isTileOccupied()) {
-                    legalMoves.add(new PawnJump(board, this, candidateDestinationCoordinate));
-                }
+            final int jumpDestinationCoordinate = candidateDestinationCoordinate + forwardOffset;
+            if (this.isFirstMove() && isOnStartingRow() && !position.isOccupied(jumpDestinationCoordinate)) {
+                legalMoves.add(new PawnJump(board, this, jumpDestinationCoordinate));
             }
-            else if (currentCandidateOffset == 7 &&
-                    !((BoardUtils.INSTANCE.EIGHTH_COLUMN.get(this.piecePosition) && this.pieceAlliance.isWhite()) ||
-                      (BoardUtils.INSTANCE.FIRST_COLUMN.get(this.piecePosition) && this.pieceAlliance.isBlack()))) {
-                if(board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAllegiance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(
-                                    new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-                        }
-                        else {
-                            legalMoves.add(
-                                    new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPiecePosition() ==
-                           (this.piecePosition + (this.pieceAlliance.getOppositeDirection()))) {
-                    final Piece pieceOnCandidate = board.getEnPassantPawn();
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAllegiance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(
-                                    new PawnEnPassantAttack(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-                        } else {
-                            legalMoves.add(
-                                    new PawnEnPassantAttack(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                        }
-                    }
-                }
-            }
-            else if (currentCandidateOffset == 9 &&
-                    !((BoardUtils.INSTANCE.FIRST_COLUMN.get(this.piecePosition) && this.pieceAlliance.isWhite()) ||
-                      (BoardUtils.INSTANCE.EIGHTH_COLUMN.get(this.piecePosition) && this.pieceAlliance.isBlack()))) {
-                if(board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    if (this.pieceAlliance !=
-                            board.getTile(candidateDestinationCoordinate).getPiece().getPieceAllegiance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(
-                                    new PawnAttackMove(board, this, candidateDestinationCoordinate,
-                                            board.getTile(candidateDestinationCoordinate).getPiece())));
-                        }
-                        else {
-                            legalMoves.add(
-                                    new PawnAttackMove(board, this, candidateDestinationCoordinate,
-                                            board.getTile(candidateDestinationCoordinate).getPiece()));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPiecePosition() ==
-                        (this.piecePosition - (this.pieceAlliance.getOppositeDirection()))) {
-                    final Piece pieceOnCandidate = board.getEnPassantPawn();
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAllegiance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(
-                                    new PawnEnPassantAttack(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-                        } else {
-                            legalMoves.add(
-                                    new PawnEnPassantAttack(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                        }
-                    }
+        }
+        addAttackMoves(board, legalMoves);
+        return legalMoves.build();
+    }
+
+    /*The pawn's tactical moves: its attacks, the en passant capture and the push onto the last row, which isn't a capture but
+    is the biggest gain a pawn can make. Quiet pushes and jumps are left out.*/
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        final Position position = board.getPosition();
+        final ImmutableList.Builder<Move> tacticalMoves = ImmutableList.builderWithExpectedSize(3);
+        final int candidateDestinationCoordinate =
+                this.piecePosition + this.pieceAlliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate) &&
+            !position.isOccupied(candidateDestinationCoordinate)) {
+            tacticalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
+        }
+        addAttackMoves(board, tacticalMoves);
+        return tacticalMoves.build();
+    }
 
-                }
+    //The captures of the pawn, promoting ones included, and the en passant capture. Shared by both move lists above.
+    private void addAttackMoves(final Board board,
+                                final ImmutableList.Builder<Move> moves) {
+        final Position position = board.getPosition();
+        final long attackedTiles = Attacks.pawnAttacks(this.pieceAlliance, this.piecePosition);
+        long attackedEnemies = attackedTiles & position.getOccupied() & ~position.getAlliancePieces(this.pieceAlliance);
+        while (attackedEnemies != 0) {
+            final int attackCoordinate = Long.numberOfTrailingZeros(attackedEnemies);
+            final Piece pieceOnCandidate = board.getTile(attackCoordinate).getPiece();
+            if (this.pieceAlliance.isPawnPromotionSquare(attackCoordinate)) {
+                moves.add(new PawnPromotion(new PawnAttackMove(board, this, attackCoordinate, pieceOnCandidate)));
+            }
+            else {
+                moves.add(new PawnAttackMove(board, this, attackCoordinate, pieceOnCandidate));
+            }
+            attackedEnemies &= attackedEnemies - 1;
+        }
+        final int enPassantSquare = position.getEnPassantSquare();
+        if (enPassantSquare != Position.NO_SQUARE && (attackedTiles & (1L << enPassantSquare)) != 0) {
+            final Pawn enPassantPawn = board.getEnPassantPawn();
+            if (this.pieceAlliance != enPassantPawn.getPieceAllegiance()) {
+                moves.add(new PawnEnPassantAttack(board, this, enPassantSquare, enPassantPawn));
             }
         }
-        return ImmutableList.copyOf(legalMoves);
+    }
+
+    private boolean isOnStartingRow() {
+        final long startingRow = this.pieceAlliance.isWhite() ? WHITE_STARTING_ROW : BLACK_STARTING_ROW;
+        return (startingRow & (1L << this.piecePosition)) != 0;
     }
 
     //Overriding toString so we can return a string type of the piece.
@@ -162,7 +136,7 @@ public final class Pawn
     //In chess, the pawn has the ability to promote by going to the other side of the board. Normally
     //promotes to the queen piece. This gives us a new queen piece based on the pawn promoting.
     public Piece getPromotionPiece() {
-        return new Queen(this.pieceAlliance, this.piecePosition, false);
+        return PieceUtils.INSTANCE.getPiece(this.pieceAlliance, PieceType.QUEEN, 0, this.piecePosition);
     }
 
 }
\ No newline at end of file
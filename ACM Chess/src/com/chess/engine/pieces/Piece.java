@@ -6,6 +6,12 @@ package com.chess.engine.pieces;
 import java.util.Collection;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MajorAttackMove;
+import com.chess.engine.board.Move.MajorMove;
+import com.chess.engine.board.Position;
+import com.google.common.collect.ImmutableList;
 
 //This is the piece class. It's an abstract class, which means it can only be used if the Piece class
 //is the parent of the chess pieces due to this class being general.  Below are abstract methods, which they
@@ -50,6 +56,11 @@ public abstract class Piece {
         return this.isFirstMove;
     }
 
+    //The state of the piece used to find its cached copy (see PieceUtils): 1 if it still has its first move, 0 if not.
+    public int getStateIndex() {
+        return this.isFirstMove ? PieceUtils.FIRST_MOVE_STATE : 0;
+    }
+
     //Gets the value of the piece and returns it.
     public int getPieceValue() {
         return this.pieceType.getPieceValue();
@@ -61,6 +72,45 @@ public abstract class Piece {
     //Legal moves that any piece can use to move to different parts of the tiles
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    /*Only the captures and promotions out of calculateLegalMoves. Quiescence search looks at nothing else, and it is most of the
+    tree, so these are made straight from the attacked enemy pieces instead of making every move and throwing the quiet ones away.*/
+    public abstract Collection<Move> calculateTacticalMoves(final Board board);
+
+    /*Turns a bitboard of attacked tiles into moves. Tiles holding one of our own pieces are dropped, tiles holding an enemy piece
+    become a MajorAttackMove and empty tiles become a MajorMove. Used by every piece except the pawn, which moves differently
+    from how it attacks. Every candidate tile becomes a move, so the list is built at its exact size and never copied.*/
+    protected Collection<Move> createMajorMoves(final Board board,
+                                                final long attackedTiles) {
+        final Position position = board.getPosition();
+        long candidateDestinations = attackedTiles & ~position.getAlliancePieces(this.pieceAlliance);
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builderWithExpectedSize(Long.bitCount(candidateDestinations));
+        while (candidateDestinations != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(candidateDestinations);
+            if (position.isOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getTile(candidateDestinationCoordinate).getPiece()));
+            } else {
+                legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
+            }
+            candidateDestinations &= candidateDestinations - 1;
+        }
+        return legalMoves.build();
+    }
+
+    //Same as createMajorMoves, but only the tiles holding an enemy piece become moves, all of them MajorAttackMoves.
+    protected Collection<Move> createMajorAttackMoves(final Board board,
+                                                      final long attackedTiles) {
+        final Position position = board.getPosition();
+        long attackedEnemies = attackedTiles & position.getOccupied() & ~position.getAlliancePieces(this.pieceAlliance);
+        final ImmutableList.Builder<Move> attackMoves = ImmutableList.builderWithExpectedSize(Long.bitCount(attackedEnemies));
+        while (attackedEnemies != 0) {
+            final int attackCoordinate = Long.numberOfTrailingZeros(attackedEnemies);
+            attackMoves.add(new MajorAttackMove(board, this, attackCoordinate, board.getTile(attackCoordinate).getPiece()));
+            attackedEnemies &= attackedEnemies - 1;
+        }
+        return attackMoves.build();
+    }
+
     //Equals method to check if one piece is the same type of piece of the other. Returns
     //true if equal.
     @Override
@@ -3,95 +3,114 @@ package com.chess.engine.pieces;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.google.common.collect.ImmutableTable;
-import com.google.common.collect.Table;
+import com.chess.engine.pieces.Piece.PieceType;
 
-//An enum that contains many constants.
-enum PieceUtils {
+/*An enum that holds one copy of every piece that can stand on the board. Pieces never change once they're made, so every board
+can share the same ones instead of making new pieces for every move.
+
+The pieces are kept in a flat array indexed by [alliance][piece type][state][tile], where the state is the one given by
+Piece.getStateIndex(): whether the piece still has its first move for most pieces, and for the king also whether it has castled
+and which sides it can still castle to. Finding a piece is then just indexing into arrays, no hashing or boxing of the tile.*/
+public enum PieceUtils {
 
     INSTANCE;
 
-	//These constants are meant to create all of the possible chess pieces to their respective places.
-    private final Table<Alliance, Integer, Queen> ALL_POSSIBLE_QUEENS = PieceUtils.createAllPossibleMovedQueens();
-    private final Table<Alliance, Integer, Rook> ALL_POSSIBLE_ROOKS = PieceUtils.createAllPossibleMovedRooks();
-    private final Table<Alliance, Integer, Knight> ALL_POSSIBLE_KNIGHTS = PieceUtils.createAllPossibleMovedKnights();
-    private final Table<Alliance, Integer, Bishop> ALL_POSSIBLE_BISHOPS = PieceUtils.createAllPossibleMovedBishops();
-    private final Table<Alliance, Integer, Pawn> ALL_POSSIBLE_PAWNS = PieceUtils.createAllPossibleMovedPawns();
+    //Most pieces only have two states, moved or not. The king has 16 (see King.getStateIndex()).
+    static final int NUM_STATES = 2;
+    static final int NUM_KING_STATES = 16;
+
+    static final int FIRST_MOVE_STATE = 1;
+    static final int CASTLED_STATE = 1 << 1;
+    static final int KING_SIDE_CASTLE_STATE = 1 << 2;
+    static final int QUEEN_SIDE_CASTLE_STATE = 1 << 3;
+
+    private final Piece[][][][] ALL_POSSIBLE_PIECES = PieceUtils.createAllPossiblePieces();
+
+    //Returns the cached piece of the given kind, see Piece.getStateIndex() for the state.
+    public Piece getPiece(final Alliance alliance,
+                          final PieceType pieceType,
+                          final int state,
+                          final int coordinate) {
+        return ALL_POSSIBLE_PIECES[alliance.ordinal()][pieceType.ordinal()][state][coordinate];
+    }
+
+    //The number of states a piece of this type can be in, the size of the state part of the array.
+    public static int getNumStates(final PieceType pieceType) {
+        return pieceType.isKing() ? NUM_KING_STATES : NUM_STATES;
+    }
 
-    //Returns the moved pieces of the pawn, knight, bishop, rook, and queen.
+    //Returns the moved pieces of the pawn, knight, bishop, rook, queen and king.
     Pawn getMovedPawn(final Move move) {
-        return ALL_POSSIBLE_PAWNS.get(move.getMovedPiece().getPieceAllegiance(), move.getDestinationCoordinate());
+        return (Pawn) getMovedPiece(move, PieceType.PAWN, 0);
     }
 
     Knight getMovedKnight(final Move move) {
-        return ALL_POSSIBLE_KNIGHTS.get(move.getMovedPiece().getPieceAllegiance(), move.getDestinationCoordinate());
+        return (Knight) getMovedPiece(move, PieceType.KNIGHT, 0);
     }
 
     Bishop getMovedBishop(final Move move) {
-        return ALL_POSSIBLE_BISHOPS.get(move.getMovedPiece().getPieceAllegiance(), move.getDestinationCoordinate());
+        return (Bishop) getMovedPiece(move, PieceType.BISHOP, 0);
     }
 
     Rook getMovedRook(final Move move) {
-        return ALL_POSSIBLE_ROOKS.get(move.getMovedPiece().getPieceAllegiance(), move.getDestinationCoordinate());
+        return (Rook) getMovedPiece(move, PieceType.ROOK, 0);
     }
 
     Queen getMovedQueen(final Move move) {
-        return ALL_POSSIBLE_QUEENS.get(move.getMovedPiece().getPieceAllegiance(), move.getDestinationCoordinate());
+        return (Queen) getMovedPiece(move, PieceType.QUEEN, 0);
     }
 
-    //Creates all of the pawn pieces in the table, with the alliance, position, and initializing a pawn piece.
-    private static Table<Alliance, Integer, Pawn> createAllPossibleMovedPawns() {
-        final ImmutableTable.Builder<Alliance, Integer, Pawn> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Pawn(alliance, i, false));
-            }
-        }
-        return pieces.build();
-    }
-    
-    //Similar to Pawns, but create all of the knights.
-    private static Table<Alliance, Integer, Knight> createAllPossibleMovedKnights() {
-        final ImmutableTable.Builder<Alliance, Integer, Knight> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Knight(alliance, i, false));
-            }
-        }
-        return pieces.build();
+    //A king that has moved can't castle anymore, it only remembers whether the move was a castle.
+    King getMovedKing(final Move move) {
+        return (King) getMovedPiece(move, PieceType.KING, move.isCastlingMove() ? CASTLED_STATE : 0);
     }
 
-    //Similar to Knights, but create all of the Bishops.
-    private static Table<Alliance, Integer, Bishop> createAllPossibleMovedBishops() {
-        final ImmutableTable.Builder<Alliance, Integer, Bishop> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Bishop(alliance, i, false));
-            }
-        }
-        return pieces.build();
+    private Piece getMovedPiece(final Move move,
+                                final PieceType pieceType,
+                                final int state) {
+        return getPiece(move.getMovedPiece().getPieceAllegiance(), pieceType, state, move.getDestinationCoordinate());
     }
 
-    //Creates all of the possible rooks
-    private static Table<Alliance, Integer, Rook> createAllPossibleMovedRooks() {
-        final ImmutableTable.Builder<Alliance, Integer, Rook> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Rook(alliance, i, false));
+    //Creates every piece in every state on every tile for both alliances.
+    private static Piece[][][][] createAllPossiblePieces() {
+        final PieceType[] pieceTypes = PieceType.values();
+        final Piece[][][][] pieces = new Piece[Alliance.values().length][pieceTypes.length][][];
+        for (final Alliance alliance : Alliance.values()) {
+            for (final PieceType pieceType : pieceTypes) {
+                final Piece[][] statePieces = new Piece[getNumStates(pieceType)][BoardUtils.NUM_TILES];
+                for (int state = 0; state < statePieces.length; state++) {
+                    for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                        statePieces[state][i] = createPiece(alliance, pieceType, state, i);
+                    }
+                }
+                pieces[alliance.ordinal()][pieceType.ordinal()] = statePieces;
             }
         }
-        return pieces.build();
+        return pieces;
     }
 
-    //Creates all of the possible Queens. All of these women in chess are not thots, but queens.
-    private static Table<Alliance, Integer, Queen> createAllPossibleMovedQueens() {
-        final ImmutableTable.Builder<Alliance, Integer, Queen> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Queen(alliance, i, false));
-            }
+    private static Piece createPiece(final Alliance alliance,
+                                     final PieceType pieceType,
+                                     final int state,
+                                     final int coordinate) {
+        final boolean isFirstMove = (state & FIRST_MOVE_STATE) != 0;
+        switch (pieceType) {
+            case PAWN:
+                return new Pawn(alliance, coordinate, isFirstMove);
+            case KNIGHT:
+                return new Knight(alliance, coordinate, isFirstMove);
+            case BISHOP:
+                return new Bishop(alliance, coordinate, isFirstMove);
+            case ROOK:
+                return new Rook(alliance, coordinate, isFirstMove);
+            case QUEEN:
+                return new Queen(alliance, coordinate, isFirstMove);
+            case KING:
+                return new King(alliance, coordinate, isFirstMove, (state & CASTLED_STATE) != 0,
+                        (state & KING_SIDE_CASTLE_STATE) != 0, (state & QUEEN_SIDE_CASTLE_STATE) != 0);
+            default:
+                throw new RuntimeException("Should not reach here!");
         }
-        return pieces.build();
     }
 
-}
\ No newline at end of file
+}
@@ -1,19 +1,16 @@
 package com.chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.Alliance;
-import com.google.common.collect.ImmutableList;
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
 
 //Like other pieces, all of these are pretty much similar to each other in terms of the methods. Refer to comments of
 //other pieces as the purposes of the methods are similar.
 public final class Queen extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_COORDINATES = { -9, -8, -7, -1, 1,
-        7, 8, 9 };
-
     public Queen(final Alliance alliance, final int piecePosition) {
         super(PieceType.QUEEN, alliance, piecePosition, true);
     }
@@ -26,35 +23,12 @@ public final class Queen extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        int candidateDestinationCoordinate;
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            candidateDestinationCoordinate = this.piecePosition;
-            while (true) {
-                if (isFirstColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate) ||
-                    isEightColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate)) {
-                    break;
-                }
-                candidateDestinationCoordinate += currentCandidateOffset;
-                if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    break;
-                } else {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAtDestinationAllegiance = pieceAtDestination.getPieceAllegiance();
-                        if (this.pieceAlliance != pieceAtDestinationAllegiance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                    pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMajorMoves(board, Attacks.queenAttacks(this.piecePosition, board.getPosition().getOccupied()));
+    }
+
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        return createMajorAttackMoves(board, Attacks.queenAttacks(this.piecePosition, board.getPosition().getOccupied()));
     }
 
     @Override
@@ -72,16 +46,4 @@ public final class Queen extends Piece {
         return this.pieceType.toString();
     }
 
-    private static boolean isFirstColumnExclusion(final int currentPosition,
-                                                  final int candidatePosition) {
-        return BoardUtils.INSTANCE.FIRST_COLUMN.get(candidatePosition) && ((currentPosition == -9)
-                || (currentPosition == -1) || (currentPosition == 7));
-    }
-
-    private static boolean isEightColumnExclusion(final int currentPosition,
-                                                  final int candidatePosition) {
-        return BoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidatePosition) && ((currentPosition == -7)
-                || (currentPosition == 1) || (currentPosition == 9));
-    }
-
-}
\ No newline at end of file
+}
@@ -1,16 +1,14 @@
 package com.chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.Alliance;
-import com.google.common.collect.ImmutableList;
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
 
 public final class Rook extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_COORDINATES = { -8, -1, 1, 8 };
-
     public Rook(final Alliance alliance, final int piecePosition) {
         super(PieceType.ROOK, alliance, piecePosition, true);
     }
@@ -23,31 +21,12 @@ public final class Rook extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate)) {
-                    break;
-                }
-                candidateDestinationCoordinate += currentCandidateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAtDestinationAllegiance = pieceAtDestination.getPieceAllegiance();
-                        if (this.pieceAlliance != pieceAtDestinationAllegiance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate,
-                                    pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMajorMoves(board, Attacks.rookAttacks(this.piecePosition, board.getPosition().getOccupied()));
+    }
+
+    @Override
+    public Collection<Move> calculateTacticalMoves(final Board board) {
+        return createMajorAttackMoves(board, Attacks.rookAttacks(this.piecePosition, board.getPosition().getOccupied()));
     }
 
     @Override
@@ -65,10 +44,4 @@ public final class Rook extends Piece {
         return this.pieceType.toString();
     }
 
-    private static boolean isColumnExclusion(final int currentCandidate,
-                                             final int candidateDestinationCoordinate) {
-        return (BoardUtils.INSTANCE.FIRST_COLUMN.get(candidateDestinationCoordinate) && (currentCandidate == -1)) ||
-               (BoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidateDestinationCoordinate) && (currentCandidate == 1));
-    }
-
-}
\ No newline at end of file
+}
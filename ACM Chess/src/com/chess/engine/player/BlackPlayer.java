@@ -16,15 +16,12 @@ import com.google.common.collect.ImmutableList;
 
 public final class BlackPlayer extends Player {
 
-    public BlackPlayer(final Board board,
-                       final Collection<Move> whiteStandardLegals,
-                       final Collection<Move> blackStandardLegals) {
-        super(board, blackStandardLegals, whiteStandardLegals);
+    public BlackPlayer(final Board board) {
+        super(board);
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                    final Collection<Move> opponentLegals) {
+    protected Collection<Move> calculateKingCastles() {
 
         final List<Move> kingCastles = new ArrayList<>();
 
@@ -33,8 +30,8 @@ public final class BlackPlayer extends Player {
             if(!this.board.getTile(5).isTileOccupied() && !this.board.getTile(6).isTileOccupied()) {
                 final Tile rookTile = this.board.getTile(7);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() &&
-                   Player.calculateAttacksOnTile(5, opponentLegals).isEmpty() &&
-                   Player.calculateAttacksOnTile(6, opponentLegals).isEmpty() &&
+                   !isTileAttacked(5) &&
+                   !isTileAttacked(6) &&
                    rookTile.getPiece().getPieceType().isRook()) {
                     kingCastles.add(
                             new KingSideCastleMove(this.board, this.playerKing, 6, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 5));
@@ -45,8 +42,8 @@ public final class BlackPlayer extends Player {
                !this.board.getTile(3).isTileOccupied()) {
                 final Tile rookTile = this.board.getTile(0);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() &&
-                   Player.calculateAttacksOnTile(2, opponentLegals).isEmpty() &&
-                   Player.calculateAttacksOnTile(3, opponentLegals).isEmpty() &&
+                   !isTileAttacked(2) &&
+                   !isTileAttacked(3) &&
                    rookTile.getPiece().getPieceType().isRook()) {
                     kingCastles.add(
                             new QueenSideCastleMove(this.board, this.playerKing, 2, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 3));
@@ -0,0 +1,46 @@
+package com.chess.engine.player;
+
+//Whether the game goes on for the player to move, or has ended in checkmate, stalemate or one of the other draws. See
+//Player.getGameStatus().
+public enum GameStatus {
+
+    ONGOING {
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+    },
+    CHECKMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    STALEMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    DRAW_BY_REPETITION {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    DRAW_BY_FIFTY_MOVE_RULE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    DRAW_BY_INSUFFICIENT_MATERIAL {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    };
+
+    public abstract boolean isGameOver();
+
+}
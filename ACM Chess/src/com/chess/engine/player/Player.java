@@ -1,16 +1,18 @@
 package com.chess.engine.player;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.LegalMoveFilter;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.MoveStatus;
+import com.chess.engine.board.MoveIndex;
 import com.chess.engine.board.MoveTransition;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
@@ -18,47 +20,111 @@ public abstract class Player {
 
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    protected final boolean isInCheck;
-
-    /*For isInCheckmate, the reason we don't have a boolean variable on that is because we kind of have a chicken and egg problem. We're calling a constructor for the player
-    when we're constructing the board. We're constructing a baord and amidst on constructing a board, we construct a player (black and white). When construct the player, and we
-    were trying to calculate isInCheckmate, we know we have to call hasEscapeMoves and hasEscapeMoves is going to be making a move which is going to be constructing a board,
-    and when we're constructing the board. When we come constuct the board we'll have to again calculate the player again. We want to break out of that loop by not defining
-    a boolean isInCheckmate defined in the constructor.*/
-    Player(final Board board,
-           final Collection<Move> playerLegals,
-           final Collection<Move> opponentLegals) {
+    /*Worked out the first time somebody asks for them (see getStandardMoves, getLegalMoves, isInCheck and getGameStatus) and then
+    kept for this board, since lots of boards are only built to play one move on or to look at a tile. Boards are immutable, so
+    it doesn't matter if two threads race to work out the same thing: they both get the same answer and one of them is kept.*/
+    private volatile Collection<Move> standardMoves;
+    private volatile Collection<Move> legalMoves;
+    private volatile MoveIndex legalMoveIndex;
+    private volatile long[] legalMoveOrigins;
+    private volatile Boolean isInCheck;
+    private volatile GameStatus gameStatus;
+
+    /*The player is made while its board is still being built, so all the constructor does is find the king. Checkmate and the
+    rest of the game status are worked out later, when somebody asks (see getGameStatus). That doesn't build any more boards:
+    hasEscapeMoves checks the moves with LegalMoveFilter instead of playing them.*/
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(
-                Iterables.concat(playerLegals, calculateKingCastles(playerLegals, opponentLegals)));
-        //We're saying that does the opponent's move attack the current player king's position and get all of those different attacks, and if that is not empty, then that
-        //means the current player is in check. And the isInCheck method returns this.
-        /*We're*/
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentLegals).isEmpty();
     }
 
-    //Testing if the move that's being passed in is contained in the legal move in the collection.
+    //Testing if the move that's being passed in is contained in the legal move in the collection. The moves are looked up by
+    //their tiles (see MoveIndex), so only one of them is compared with the move.
     public boolean isMoveLegal(final Move move) {
-        return !(move.isCastlingMove() && isInCheck()) && this.legalMoves.contains(move);
+        return !(move.isCastlingMove() && isInCheck()) && getLegalMoveIndex().contains(move);
+    }
+
+    //The legal move going from one tile to the other, or the null move if the player has no such move.
+    public Move getLegalMove(final int currentCoordinate,
+                             final int destinationCoordinate) {
+        return getLegalMoveIndex().get(currentCoordinate, destinationCoordinate);
+    }
+
+    /*A bitboard of the tiles the player's legal moves to the destination start from, for pieces of the given type. Worked out
+    for every piece type and destination in one go over the legal moves. Used to write moves down in SAN (see SanWriter).*/
+    public long getLegalMoveOrigins(final PieceType pieceType,
+                                    final int destinationCoordinate) {
+        long[] legalMoveOrigins = this.legalMoveOrigins;
+        if (legalMoveOrigins == null) {
+            legalMoveOrigins = new long[PieceType.values().length * BoardUtils.NUM_TILES];
+            for (final Move move : getLegalMoves()) {
+                legalMoveOrigins[move.getMovedPiece().getPieceType().ordinal() * BoardUtils.NUM_TILES +
+                                 move.getDestinationCoordinate()] |= 1L << move.getCurrentCoordinate();
+            }
+            this.legalMoveOrigins = legalMoveOrigins;
+        }
+        return legalMoveOrigins[pieceType.ordinal() * BoardUtils.NUM_TILES + destinationCoordinate];
+    }
+
+    private MoveIndex getLegalMoveIndex() {
+        MoveIndex legalMoveIndex = this.legalMoveIndex;
+        if (legalMoveIndex == null) {
+            legalMoveIndex = new MoveIndex(getLegalMoves());
+            this.legalMoveIndex = legalMoveIndex;
+        }
+        return legalMoveIndex;
     }
 
-    //An important method; returns the isInCheck variable.
+    //An important method; returns whether the opponent attacks the current player's king. The position answers that by looking
+    //outwards from the king's tile, so the opponent's moves don't have to be generated for it.
     public boolean isInCheck() {
-        return this.isInCheck;
+        Boolean isInCheck = this.isInCheck;
+        if (isInCheck == null) {
+            isInCheck = isTileAttacked(this.playerKing.getPiecePosition());
+            this.isInCheck = isInCheck;
+        }
+        return isInCheck;
+    }
+
+    //Whether any of the opponent's pieces attacks the tile. Used for check and for the tiles the king crosses when castling.
+    protected boolean isTileAttacked(final int tile) {
+        return this.board.getPosition().isSquareAttacked(tile, getOpponent().getAlliance());
     }
 
     //Method for checkmate; What this method means that in chess, the king is currently in check and the king has no way to escape check. THis is what checkmate means.
     //We check the isInCheck variable and if it doesn't have escape moves.
     public boolean isInCheckMate() {
-       return this.isInCheck && !hasEscapeMoves();
+       return getGameStatus() == GameStatus.CHECKMATE;
     }
 
     //Method for stalemate; the current player is not in check and doesn't have any escape moves. You're not in check but you also don't have any escape moves.
     //This means that you can't make a move that will not lead your king in check. It's simple to calculate. This is stalemate.
     public boolean isInStaleMate() {
-        return !this.isInCheck && !hasEscapeMoves();
+        return getGameStatus() == GameStatus.STALEMATE;
+    }
+
+    /*Whether the game is over for this player, worked out once per board (the GUI asks for it several times after every move).
+    Only the player to move can be checkmated or stalemated, the other player's game always goes on. A checkmate on the move that
+    would have made a draw still counts as a checkmate, so the draws are only looked at when the player can move.*/
+    public GameStatus getGameStatus() {
+        GameStatus gameStatus = this.gameStatus;
+        if (gameStatus == null) {
+            if (this.board.getPosition().getSideToMove() != getAlliance()) {
+                gameStatus = GameStatus.ONGOING;
+            } else if (!hasEscapeMoves()) {
+                gameStatus = isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            } else if (this.board.isDrawByFiftyMoveRule()) {
+                gameStatus = GameStatus.DRAW_BY_FIFTY_MOVE_RULE;
+            } else if (this.board.isDrawByInsufficientMaterial()) {
+                gameStatus = GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL;
+            } else if (this.board.isDrawByRepetition()) {
+                gameStatus = GameStatus.DRAW_BY_REPETITION;
+            } else {
+                gameStatus = GameStatus.ONGOING;
+            }
+            this.gameStatus = gameStatus;
+        }
+        return gameStatus;
     }
 
     public boolean isCastled() {
@@ -73,6 +139,10 @@ public abstract class Player {
         return this.playerKing.isQueenSideCastleCapable();
     }
 
+    public Board getBoard() {
+        return this.board;
+    }
+
     public King getPlayerKing() {
         return this.playerKing;
     }
@@ -91,61 +161,104 @@ public abstract class Player {
         throw new RuntimeException("Should not reach here! " +this.getAlliance()+ " king could not be established!");
     }
 
-    /*In order to calculate on whether the king can escape, we're going to go through each of the player's legal moves and make those moves on a new board (imaginary board)
-    Imagine we make those moves on a theoretical abstract board (not the one we're currently on) we make those moves and after we make that move, we look through the board
-    and we go, "yes, we were able to successfully make that move and now it's done." If that's the case, then we return true. If you can't do the move, because it leave
-    you in check or it's illegal, then you're gonna return false.*/
+    /*In order to calculate on whether the king can escape, we go through the player's moves and stop at the first one that is
+    legal. If the legal moves were already worked out we just look at those. Castles don't need to be looked at: a player that
+    can castle can also move its king one tile towards the rook.*/
     protected boolean hasEscapeMoves() {
-        for(final Move move : getLegalMoves()) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
+        final Collection<Move> legalMoves = this.legalMoves;
+        if (legalMoves != null) {
+            return !legalMoves.isEmpty();
+        }
+        final LegalMoveFilter legalMoveFilter = new LegalMoveFilter(this.board.getPosition());
+        for (final Move move : getStandardMoves()) {
+            if (legalMoveFilter.isLegal(move.encode())) {
                 return true;
             }
         }
         return false;
     }
 
-    //Returns the legal moves of the player
+    /*Returns the legal moves of the player: the moves of all of its pieces plus the castles. For the player whose turn it is,
+    the moves that would leave its own king in check are dropped here, by testing them against the checks and pins of the
+    position (see LegalMoveFilter) instead of making them. The other player's moves are left as they are; they are only used
+    to see what that player attacks.*/
     public Collection<Move> getLegalMoves() {
-        return this.legalMoves;
-    }
-
-    //We're gonna pass in the king's current tile position and turn in the enemy's moves, and we're gonna go through each one of the enemy's moves
-    //And see if the destination coordinate of that enemy move overlaps with the king's position.. If it does, then it's attacking the king.
-    //Returns a collection of moves that attacks that king's position, and here (isInCheck variable) to calculate the calculate the current player's check,
-    //we're gonna say that if that list is not empty, then the current player is in check.
-    static Collection<Move> calculateAttacksOnTile(final int tile,
-                                                   final Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for (final Move move : moves) {
-            if (tile == move.getDestinationCoordinate()) {
-                attackMoves.add(move);
+        Collection<Move> legalMoves = this.legalMoves;
+        if (legalMoves == null) {
+            final Collection<Move> playerLegals = getStandardMoves();
+            final Iterable<Move> candidateMoves = Iterables.concat(playerLegals, calculateKingCastles());
+            if (this.board.getPosition().getSideToMove() == getAlliance()) {
+                final LegalMoveFilter legalMoveFilter = new LegalMoveFilter(this.board.getPosition());
+                final ImmutableList.Builder<Move> moves = ImmutableList.builderWithExpectedSize(playerLegals.size() + 2);
+                for (final Move move : candidateMoves) {
+                    if (legalMoveFilter.isLegal(move.encode())) {
+                        moves.add(move);
+                    }
+                }
+                legalMoves = moves.build();
+            } else {
+                legalMoves = ImmutableList.copyOf(candidateMoves);
             }
+            this.legalMoves = legalMoves;
         }
-        return ImmutableList.copyOf(attackMoves);
+        return legalMoves;
+    }
+
+    /*Returns only the captures and promotions of the player, for quiescence search. They come straight from each piece's
+    calculateTacticalMoves, so the quiet moves are never made. Like getLegalMoves, the player to move only gets the moves that
+    don't leave its king in check. If the legal moves were already worked out, the tactical ones are picked out of those.*/
+    public Collection<Move> getTacticalMoves() {
+        final boolean isSideToMove = this.board.getPosition().getSideToMove() == getAlliance();
+        final ImmutableList.Builder<Move> tacticalMoves = ImmutableList.builder();
+        final Collection<Move> legalMoves = this.legalMoves;
+        if (legalMoves != null) {
+            for (final Move move : legalMoves) {
+                if (move.isAttack() || move instanceof Move.PawnPromotion) {
+                    tacticalMoves.add(move);
+                }
+            }
+            return tacticalMoves.build();
+        }
+        final LegalMoveFilter legalMoveFilter = isSideToMove ? new LegalMoveFilter(this.board.getPosition()) : null;
+        for (final Piece piece : getActivePieces()) {
+            for (final Move move : piece.calculateTacticalMoves(this.board)) {
+                if (legalMoveFilter == null || legalMoveFilter.isLegal(move.encode())) {
+                    tacticalMoves.add(move);
+                }
+            }
+        }
+        return tacticalMoves.build();
+    }
+
+    //The moves of the player's pieces without the castles.
+    private Collection<Move> getStandardMoves() {
+        Collection<Move> standardMoves = this.standardMoves;
+        if (standardMoves == null) {
+            final ImmutableList.Builder<Move> moves = ImmutableList.builderWithExpectedSize(35);
+            for (final Piece piece : getActivePieces()) {
+                moves.addAll(piece.calculateLegalMoves(this.board));
+            }
+            standardMoves = moves.build();
+            this.standardMoves = standardMoves;
+        }
+        return standardMoves;
     }
 
     //When we make a move, we're going to return a MoveTransition which is going to wrap the board that we have transitioned to, if we're able to actually
     //make the move and the Move Status is done.
-    /*If the move is illegal, the transition move status will be illegal and we return the same board. NO new board. Then what we're gonna say when a move is not illegal,
-    we polymorphically execute the move and create a collection of moves called kingAttacks. If there are any attacks on current player's king, we shouldn't be able to make that move. 
-    You can't make a move that exposes your king to check. Return the board with a move status that leaves the player in check. Otherwise, return the move transition board
-    wrapped in a new move transition. To calculate attacks on King, we called the helper method called calculateAttacksOnTile, and call in the current player's opponent's king.
-    This is a critical method for us; it's the center piece on playing the game of chess.
-    We can't make this move so we're gonna return the board, move, moveStatus which says LEAVES_PLAYER_IN_CHECK*/
+    /*If the move is illegal, the transition move status will be illegal and we return the same board. NO new board. A move the piece
+    could make but that would expose our king gets the LEAVES_PLAYER_IN_CHECK status instead, so the GUI can tell the two apart.
+    You can't make a move that exposes your king to check. The legal moves already leave those out, so we don't have to execute the
+    move and look for attacks on our king any more: a legal move is executed once, for the board we hand back.
+    This is a critical method for us; it's the center piece on playing the game of chess.*/
     public MoveTransition makeMove(final Move move) {
         if (!isMoveLegal(move)) {
-            return new MoveTransition(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
-        }
-        final Board transitionedBoard = move.execute();
-        final Collection<Move> kingAttacks = Player.calculateAttacksOnTile(
-                transitionedBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
-                transitionedBoard.currentPlayer().getLegalMoves());
-        if (!kingAttacks.isEmpty()) {
-            return new MoveTransition(this.board, this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+            final MoveStatus moveStatus = getStandardMoves().contains(move) || move.isCastlingMove() ?
+                    MoveStatus.LEAVES_PLAYER_IN_CHECK : MoveStatus.ILLEGAL_MOVE;
+            return new MoveTransition(this.board, this.board, move, moveStatus);
         }
         //Otherwise, return a new MoveTransition but has the MoveStatus as DONE
-        return new MoveTransition(this.board, transitionedBoard, move, MoveStatus.DONE);
+        return new MoveTransition(this.board, move.execute(), move, MoveStatus.DONE);
     }
 
     //Undo a move that was made before. Pretty much the undo button
@@ -157,6 +270,6 @@ public abstract class Player {
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentLegals);
+    protected abstract Collection<Move> calculateKingCastles();
 
 }
\ No newline at end of file
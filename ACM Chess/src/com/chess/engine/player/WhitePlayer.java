@@ -16,11 +16,8 @@ import com.google.common.collect.ImmutableList;
 
 public final class WhitePlayer extends Player {
 
-    //whiteStandardLegals are the standard legal moves for the white player. For black, it's the other way around.
-    public WhitePlayer(final Board board,
-                       final Collection<Move> whiteStandardLegals,
-                       final Collection<Move> blackStandardLegals) {
-        super(board, whiteStandardLegals, blackStandardLegals);
+    public WhitePlayer(final Board board) {
+        super(board);
     }
 
     /*This involves checking about the castling rule. We first check if the player's king has the first move as well as chekcing the position it's in, mainly tile 60, and
@@ -32,8 +29,7 @@ public final class WhitePlayer extends Player {
     or black player, depends on the class.
     */
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                    final Collection<Move> opponentLegals) {
+    protected Collection<Move> calculateKingCastles() {
 
         final List<Move> kingCastles = new ArrayList<>();
 
@@ -42,7 +38,7 @@ public final class WhitePlayer extends Player {
             if(!this.board.getTile(61).isTileOccupied() && !this.board.getTile(62).isTileOccupied()) {
                 final Tile rookTile = this.board.getTile(63);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttacksOnTile(61, opponentLegals).isEmpty() && Player.calculateAttacksOnTile(62, opponentLegals).isEmpty() &&
+                    if(!isTileAttacked(61) && !isTileAttacked(62) &&
                        rookTile.getPiece().getPieceType().isRook()) {
                         kingCastles.add(new KingSideCastleMove(this.board, this.playerKing, 62, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 61));
                     }
@@ -53,8 +49,8 @@ public final class WhitePlayer extends Player {
                !this.board.getTile(57).isTileOccupied()) {
                 final Tile rookTile = this.board.getTile(56);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttacksOnTile(58, opponentLegals).isEmpty() &&
-                       Player.calculateAttacksOnTile(59, opponentLegals).isEmpty() && rookTile.getPiece().getPieceType().isRook()) {
+                    if(!isTileAttacked(58) &&
+                       !isTileAttacked(59) && rookTile.getPiece().getPieceType().isRook()) {
                         kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, 58, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 59));
                     }
                 }
@@ -0,0 +1,406 @@
+package com.chess.engine.player.ai;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Observable;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.player.Player;
+
+/*This is the AlphaBetaWithMoveOrdering class. It picks the AI's move with an alpha-beta search, deepened one ply at a time: first
+every move is searched one ply deep, then two, and so on up to the depth asked for. Each iteration searches the best move of the
+one before it first, so most of the time the best move is found straight away and the rest of the moves are cut off quickly.
+
+Deepening also means there is always a move to play. The search stops when the time it was given runs out (or when stop() is
+called) and then plays the best move of the deepest iteration it finished, or a better one the unfinished iteration already
+proved. The first iteration always finishes, so even a slow board gets a searched move.
+
+Inside the tree the moves are ordered too: captures of the most valuable pieces by the least valuable ones first, then
+promotions, then the killer moves (quiet moves that caused a cutoff at the same ply somewhere else), then the rest. At the end
+of the search every capture sequence is played out (quiescence search) so a board isn't scored in the middle of an exchange.
+Repeated positions and the other draws (see Board.isDraw) are scored as a draw without being searched.
+
+What the search finds out about every board is kept in a transposition table (see TranspositionTable), so a board reached again
+by another move order is answered from the table, or at least has its best move searched first. The table can be handed in, so
+several searches can share one.
+
+The search of a single node can also be run on its own, for a search that splits the tree between threads and only wants the
+serial part done here (see YoungBrothersWaitSearch). It then has no table or time limit, and isAborted() can be overridden to
+give up on the node early.
+
+Scores are from the point of view of the player to move (negamax); the evaluator scores from white's point of view, so its score
+is flipped for black. Whoever watches this (the DebugPanel) is told about every finished iteration.*/
+public class AlphaBetaWithMoveOrdering
+        extends Observable
+        implements MoveStrategy {
+
+    static final int INFINITY = Integer.MAX_VALUE / 2;
+    //Scores beyond this are checkmates: MATE_SCORE minus the number of plies to the mate.
+    static final int MATE_SCORE = Integer.MAX_VALUE / 4;
+    static final int MAX_PLY = 128;
+    static final int DRAW_SCORE = 0;
+
+    private static final int MAX_QUIESCENCE_PLIES = 8;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+    //The clock is only read every this many nodes.
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    //Move ordering scores, see orderScore.
+    private static final int FIRST_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int CAPTURE_SCORE = 1000000;
+    private static final int PROMOTION_SCORE = 900000;
+    private static final int KILLER_SCORE = 800000;
+
+    private final BoardEvaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final long searchTimeMillis;
+    private final Move[][] killerMoves;
+    private volatile boolean stopped;
+    private long deadline;
+    private long boardsEvaluated;
+    private long nodesSearched;
+
+    //searchTimeMillis is how long one search may take; the first iteration is finished even if it takes longer.
+    public AlphaBetaWithMoveOrdering(final long searchTimeMillis) {
+        this(searchTimeMillis, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    public AlphaBetaWithMoveOrdering(final long searchTimeMillis,
+                                     final TranspositionTable transpositionTable) {
+        this.evaluator = new StandardBoardEvaluator();
+        this.transpositionTable = transpositionTable;
+        this.searchTimeMillis = searchTimeMillis;
+        this.killerMoves = new Move[MAX_PLY][2];
+        this.deadline = Long.MAX_VALUE;
+    }
+
+    //A search with no transposition table and no time limit, for searching single nodes (see searchNode).
+    AlphaBetaWithMoveOrdering() {
+        this(Long.MAX_VALUE, null);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    @Override
+    public String toString() {
+        return "AlphaBetaWithMoveOrdering";
+    }
+
+    @Override
+    public long getNumBoardsEvaluated() {
+        return this.boardsEvaluated;
+    }
+
+    //Makes a running search return its best move as soon as possible. Can be called from any thread.
+    public void stop() {
+        this.stopped = true;
+    }
+
+    @Override
+    public Move execute(final Board board,
+                        final int depth) {
+        this.stopped = false;
+        if (this.transpositionTable != null) {
+            this.transpositionTable.newSearch();
+        }
+        return search(board, depth, 0, 0);
+    }
+
+    /*The iterative deepening. Every iteration searches depthOffset plies deeper than its number, and the root moves after the
+    first one are rotated by rootRotation places, so a helper search (see LazySmpSearch) runs ahead of the main search or takes
+    the root moves in another order instead of searching exactly what the main search does. Leaves the stop flag and the age
+    of the table alone, so a helper can be stopped before it even starts, and doesn't make the entries of the main search look
+    old.*/
+    Move search(final Board board,
+                final int depth,
+                final int depthOffset,
+                final int rootRotation) {
+        final long startTime = System.currentTimeMillis();
+        final Player currentPlayer = board.currentPlayer();
+        final int lastDepth = Math.max(depth, 1);
+        this.boardsEvaluated = 0;
+        this.nodesSearched = 0;
+        //No time limit until the first iteration is done.
+        this.deadline = Long.MAX_VALUE;
+        for (final Move[] killers : this.killerMoves) {
+            killers[0] = null;
+            killers[1] = null;
+        }
+        if (currentPlayer.getLegalMoves().isEmpty()) {
+            return Move.NULL_MOVE;
+        }
+        Move bestMove = null;
+        int bestScore = -INFINITY;
+        for (int iteration = 1; iteration <= lastDepth && !this.stopped; iteration++) {
+            final int currentDepth = iteration + depthOffset;
+            //The best move of the last iteration goes first.
+            final List<Move> rootMoves = sortMoves(currentPlayer.getLegalMoves(), bestMove, -1);
+            if (rootRotation > 0 && rootMoves.size() > 2) {
+                Collections.rotate(rootMoves.subList(1, rootMoves.size()), -rootRotation);
+            }
+            if (bestMove == null) {
+                bestMove = rootMoves.get(0);
+            }
+            int alpha = -INFINITY;
+            Move iterationBestMove = null;
+            for (final Move move : rootMoves) {
+                final int score = -alphaBeta(move.execute(), currentDepth - 1, 1, -INFINITY, -alpha);
+                if (this.stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBestMove = move;
+                }
+            }
+            if (iterationBestMove != null) {
+                bestMove = iterationBestMove;
+                bestScore = alpha;
+            }
+            this.deadline = startTime + Math.min(this.searchTimeMillis, Long.MAX_VALUE - startTime);
+            notifyProgress(currentDepth, bestMove, bestScore, System.currentTimeMillis() - startTime);
+            if (Math.abs(bestScore) >= MATE_SCORE - MAX_PLY) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    private void notifyProgress(final int depth,
+                                final Move bestMove,
+                                final int bestScore,
+                                final long elapsedMillis) {
+        final String progress = String.format("%s depth %d%s: %s (score %d), %d boards in %d ms, %s",
+                this, depth, this.stopped ? " (stopped)" : "", bestMove, bestScore, this.boardsEvaluated, elapsedMillis,
+                this.transpositionTable);
+        setChanged();
+        notifyObservers(progress);
+    }
+
+    private int alphaBeta(final Board board,
+                          final int depth,
+                          final int ply,
+                          final int alpha,
+                          final int beta) {
+        if (isTimeUp()) {
+            return DRAW_SCORE;
+        }
+        if (board.isRepetition() || board.isDrawByFiftyMoveRule() || board.isDrawByInsufficientMaterial()) {
+            return DRAW_SCORE;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(board, ply, 0, alpha, beta);
+        }
+        final long key = board.getZobristKey();
+        final long entry = this.transpositionTable != null ? this.transpositionTable.probe(key) : TranspositionTable.NO_ENTRY;
+        Move hashMove = null;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMove = TranspositionTable.getBestMove(entry, board);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                final int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                final int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                    (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                    (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        final Player currentPlayer = board.currentPlayer();
+        final Collection<Move> legalMoves = currentPlayer.getLegalMoves();
+        if (legalMoves.isEmpty()) {
+            return currentPlayer.isInCheck() ? -MATE_SCORE + ply : DRAW_SCORE;
+        }
+        int bestScore = -INFINITY;
+        Move bestMove = null;
+        int currentAlpha = alpha;
+        for (final Move move : sortMoves(legalMoves, hashMove, ply)) {
+            final int score = -alphaBeta(move.execute(), depth - 1, ply + 1, -beta, -currentAlpha);
+            if (isAborted()) {
+                return DRAW_SCORE;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > currentAlpha) {
+                    currentAlpha = score;
+                    if (currentAlpha >= beta) {
+                        storeKiller(move, ply);
+                        break;
+                    }
+                }
+            }
+        }
+        final int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND :
+                          bestScore > alpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        //When every move failed low the "best" one is only the one that happened to score highest, not worth searching first
+        //next time, so the hash move the table already has is kept.
+        if (this.transpositionTable != null) {
+            this.transpositionTable.store(key, depth, bound, scoreToTable(bestScore, ply),
+                    bound == TranspositionTable.UPPER_BOUND ? null : bestMove);
+        }
+        return bestScore;
+    }
+
+    //Mate scores count the plies from the root, but a board in the table can come up at any ply. So they are stored as
+    //plies from the board itself and turned back when they are read.
+    static int scoreToTable(final int score,
+                            final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    static int scoreFromTable(final int score,
+                              final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /*Plays out the captures and promotions until the board is quiet. The player to move can always stand pat (keep the score of
+    the board as it is) instead of capturing, unless it is in check, in which case every move out of check is searched.*/
+    private int quiescence(final Board board,
+                           final int ply,
+                           final int quiescencePly,
+                           final int alpha,
+                           final int beta) {
+        if (isTimeUp()) {
+            return DRAW_SCORE;
+        }
+        final Player currentPlayer = board.currentPlayer();
+        final boolean isInCheck = currentPlayer.isInCheck();
+        if (isInCheck && currentPlayer.getLegalMoves().isEmpty()) {
+            return -MATE_SCORE + ply;
+        }
+        final boolean isAtLimit = quiescencePly >= MAX_QUIESCENCE_PLIES || ply >= MAX_PLY - 1;
+        int bestScore = -INFINITY;
+        int currentAlpha = alpha;
+        if (!isInCheck || isAtLimit) {
+            bestScore = evaluate(board);
+            if (bestScore >= beta || isAtLimit) {
+                return bestScore;
+            }
+            currentAlpha = Math.max(currentAlpha, bestScore);
+        }
+        final Collection<Move> moves = isInCheck ? currentPlayer.getLegalMoves() : currentPlayer.getTacticalMoves();
+        for (final Move move : sortMoves(moves, null, -1)) {
+            final int score = -quiescence(move.execute(), ply + 1, quiescencePly + 1, -beta, -currentAlpha);
+            if (isAborted()) {
+                return DRAW_SCORE;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > currentAlpha) {
+                    currentAlpha = score;
+                    if (currentAlpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    //The evaluator's score for the player to move.
+    private int evaluate(final Board board) {
+        this.boardsEvaluated++;
+        final int score = this.evaluator.evaluate(board, 0);
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    private boolean isTimeUp() {
+        if (!this.stopped && (++this.nodesSearched % TIME_CHECK_INTERVAL) == 0 &&
+            System.currentTimeMillis() > this.deadline) {
+            this.stopped = true;
+        }
+        return isAborted();
+    }
+
+    //Whether the search should give up on the node it is in. Checked at every node and after every move searched.
+    boolean isAborted() {
+        return this.stopped;
+    }
+
+    /*Searches one node to the depth, the same way every node of this search is searched, and returns its score for the player
+    to move. The killer moves are cleared first, so the score only depends on the board and the window (as long as there is no
+    table).*/
+    int searchNode(final Board board,
+                   final int depth,
+                   final int ply,
+                   final int alpha,
+                   final int beta) {
+        for (int i = ply; i < Math.min(ply + depth, MAX_PLY); i++) {
+            this.killerMoves[i][0] = null;
+            this.killerMoves[i][1] = null;
+        }
+        return alphaBeta(board, depth, ply, alpha, beta);
+    }
+
+    private void storeKiller(final Move move,
+                             final int ply) {
+        if (move.isAttack() || move instanceof Move.PawnPromotion || move.equals(this.killerMoves[ply][0])) {
+            return;
+        }
+        this.killerMoves[ply][1] = this.killerMoves[ply][0];
+        this.killerMoves[ply][0] = move;
+    }
+
+    /*The moves in the order they are searched: the first move (if given), then the rest by their order score. ply is the ply
+    of the killer moves to use, or -1 for none.*/
+    List<Move> sortMoves(final Collection<Move> moves,
+                         final Move firstMove,
+                         final int ply) {
+        final List<Move> sortedMoves = new ArrayList<>(moves);
+        final Move[] killers = ply >= 0 && ply < MAX_PLY ? this.killerMoves[ply] : null;
+        Collections.sort(sortedMoves, new Comparator<Move>() {
+            @Override
+            public int compare(final Move first,
+                               final Move second) {
+                return Integer.compare(orderScore(second, firstMove, killers), orderScore(first, firstMove, killers));
+            }
+        });
+        return sortedMoves;
+    }
+
+    //MVV-LVA for captures: the victim counts ten times as much as the attacker.
+    static int orderScore(final Move move,
+                          final Move firstMove,
+                          final Move[] killers) {
+        if (firstMove != null && move.equals(firstMove)) {
+            return FIRST_MOVE_SCORE;
+        }
+        int score = 0;
+        if (move.isAttack()) {
+            score += CAPTURE_SCORE + 10 * move.getAttackedPiece().getPieceValue() - move.getMovedPiece().getPieceValue();
+        }
+        if (move instanceof Move.PawnPromotion) {
+            score += PROMOTION_SCORE + PieceType.QUEEN.getPieceValue();
+        }
+        if (score == 0 && killers != null) {
+            if (move.equals(killers[0])) {
+                return KILLER_SCORE + 1;
+            }
+            if (move.equals(killers[1])) {
+                return KILLER_SCORE;
+            }
+        }
+        return score;
+    }
+
+}
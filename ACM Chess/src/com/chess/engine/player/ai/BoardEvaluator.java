@@ -0,0 +1,11 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+//An evaluator scores a board from white's point of view: above zero is good for white, below zero good for black. The depth
+//is how much of the search was left when the board was reached, so a checkmate found sooner can score higher.
+public interface BoardEvaluator {
+
+    int evaluate(Board board, int depth);
+
+}
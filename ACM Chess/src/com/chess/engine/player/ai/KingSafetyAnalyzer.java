@@ -1,19 +1,15 @@
 package com.chess.engine.player.ai;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.Player;
-import com.google.common.collect.ImmutableList;
 
 public final class KingSafetyAnalyzer {
 
     private static final KingSafetyAnalyzer INSTANCE = new KingSafetyAnalyzer();
-    private static final List<List<Boolean>> COLUMNS = initColumns();
 
     private KingSafetyAnalyzer() {
     }
@@ -22,26 +18,13 @@ public final class KingSafetyAnalyzer {
         return INSTANCE;
     }
 
-    private static List<List<Boolean>> initColumns() {
-        final List<List<Boolean>> columns = new ArrayList<>();
-        columns.add(BoardUtils.INSTANCE.FIRST_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SECOND_COLUMN);
-        columns.add(BoardUtils.INSTANCE.THIRD_COLUMN);
-        columns.add(BoardUtils.INSTANCE.FOURTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.FIFTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SIXTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SEVENTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.EIGHTH_COLUMN);
-        return ImmutableList.copyOf(columns);
-    }
-
     public KingDistance calculateKingTropism(final Player player) {
         final int playerKingSquare = player.getPlayerKing().getPiecePosition();
         final Collection<Move> enemyMoves = player.getOpponent().getLegalMoves();
         Piece closestPiece = null;
         int closestDistance = Integer.MAX_VALUE;
         for(final Move move : enemyMoves) {
-            final int currentDistance = calculateChebyshevDistance(playerKingSquare, move.getDestinationCoordinate());
+            final int currentDistance = BoardUtils.chebyshevDistance(playerKingSquare, move.getDestinationCoordinate());
             if(currentDistance < closestDistance) {
                 closestDistance = currentDistance;
                 closestPiece = move.getMovedPiece();
@@ -50,63 +33,6 @@ public final class KingSafetyAnalyzer {
         return new KingDistance(closestPiece, closestDistance);
     }
 
-    private int calculateChebyshevDistance(final int pieceOneSquare,
-                                           final int pieceTwoSquare) {
-
-        final int squareOneRank = getRank(pieceOneSquare);
-        final int squareTwoRank = getRank(pieceTwoSquare);
-
-        final int squareOneFile = getFile(pieceOneSquare);
-        final int squareTwoFile = getFile(pieceTwoSquare);
-
-        final int rankDistance = Math.abs(squareTwoRank - squareOneRank);
-        final int fileDistance = Math.abs(squareTwoFile - squareOneFile);
-
-        return Math.max(rankDistance, fileDistance);
-    }
-
-    private static int getFile(final int coordinate) {
-        if(BoardUtils.INSTANCE.FIRST_COLUMN.get(coordinate)) {
-            return 1;
-        } else if(BoardUtils.INSTANCE.SECOND_COLUMN.get(coordinate)) {
-            return 2;
-        } else if(BoardUtils.INSTANCE.THIRD_COLUMN.get(coordinate)) {
-            return 3;
-        } else if(BoardUtils.INSTANCE.FOURTH_COLUMN.get(coordinate)) {
-            return 4;
-        } else if(BoardUtils.INSTANCE.FIFTH_COLUMN.get(coordinate)) {
-            return 5;
-        } else if(BoardUtils.INSTANCE.SIXTH_COLUMN.get(coordinate)) {
-            return 6;
-        } else if(BoardUtils.INSTANCE.SEVENTH_COLUMN.get(coordinate)) {
-            return 7;
-        } else if(BoardUtils.INSTANCE.EIGHTH_COLUMN.get(coordinate)) {
-            return 8;
-        }
-        throw new RuntimeException("should not reach here!");
-    }
-
-    private static int getRank(final int coordinate) {
-        if(BoardUtils.INSTANCE.FIRST_ROW.get(coordinate)) {
-            return 1;
-        } else if(BoardUtils.INSTANCE.SECOND_ROW.get(coordinate)) {
-            return 2;
-        } else if(BoardUtils.INSTANCE.THIRD_ROW.get(coordinate)) {
-            return 3;
-        } else if(BoardUtils.INSTANCE.FOURTH_ROW.get(coordinate)) {
-            return 4;
-        } else if(BoardUtils.INSTANCE.FIFTH_ROW.get(coordinate)) {
-            return 5;
-        } else if(BoardUtils.INSTANCE.SIXTH_ROW.get(coordinate)) {
-            return 6;
-        } else if(BoardUtils.INSTANCE.SEVENTH_ROW.get(coordinate)) {
-            return 7;
-        } else if(BoardUtils.INSTANCE.EIGHTH_ROW.get(coordinate)) {
-            return 8;
-        }
-        throw new RuntimeException("should not reach here!");
-    }
-
     static class KingDistance {
 
         final Piece enemyPiece;
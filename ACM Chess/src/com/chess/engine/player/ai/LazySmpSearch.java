@@ -0,0 +1,161 @@
+package com.chess.engine.player.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/*This is the LazySmpSearch class. It searches with several threads at once the "lazy" way (Lazy SMP): every thread runs its own
+AlphaBetaWithMoveOrdering on the same board, and the only thing they share is the transposition table. The helpers don't split
+the work between them; they just fill the table with boards the main search is about to need, so the main search finds them
+there instead of searching them. So they don't just search what the main search searches, every other helper searches each
+iteration one ply deeper than the main search, running ahead of it, and the other helpers take the root moves in another
+order (see AlphaBetaWithMoveOrdering.search).
+
+The main search runs on the calling thread and is the one whose move is played and whose progress is passed on to whoever
+watches this (the DebugPanel). When it is done, the helpers are stopped. Boards are immutable, so all the threads can play
+moves on the same boards, and the table needs no locks (see TranspositionTable).
+
+The table and the helper threads are kept from one search to the next, so a game should keep using the same LazySmpSearch and
+call shutdown() when it is done with it.
+
+Run it as a program to see how long reaching each depth takes with one thread and with more.*/
+public final class LazySmpSearch
+        extends Observable
+        implements MoveStrategy {
+
+    private static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    private final long searchTimeMillis;
+    private final int numThreads;
+    private final TranspositionTable transpositionTable;
+    private final ExecutorService executor;
+    private long boardsEvaluated;
+
+    public LazySmpSearch(final long searchTimeMillis,
+                         final int numThreads) {
+        this.searchTimeMillis = searchTimeMillis;
+        this.numThreads = Math.max(numThreads, 1);
+        this.transpositionTable = new TranspositionTable(DEFAULT_TABLE_MEGABYTES);
+        this.executor = this.numThreads > 1 ? Executors.newFixedThreadPool(this.numThreads - 1, new HelperThreadFactory()) :
+                null;
+    }
+
+    //Lets the helper threads go. The search can't be used after this.
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazySmpSearch(" + this.numThreads + " threads)";
+    }
+
+    public int getNumThreads() {
+        return this.numThreads;
+    }
+
+    @Override
+    public long getNumBoardsEvaluated() {
+        return this.boardsEvaluated;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    @Override
+    public Move execute(final Board board,
+                        final int depth) {
+        final AlphaBetaWithMoveOrdering mainSearch =
+                new AlphaBetaWithMoveOrdering(this.searchTimeMillis, this.transpositionTable);
+        mainSearch.addObserver(new Observer() {
+            @Override
+            public void update(final Observable observable,
+                               final Object progress) {
+                setChanged();
+                notifyObservers(LazySmpSearch.this + " " + progress);
+            }
+        });
+        this.transpositionTable.newSearch();
+        final List<AlphaBetaWithMoveOrdering> helpers = new ArrayList<>();
+        final List<Future<Move>> helperResults = new ArrayList<>();
+        for (int i = 1; i < this.numThreads; i++) {
+            final AlphaBetaWithMoveOrdering helper =
+                    new AlphaBetaWithMoveOrdering(this.searchTimeMillis, this.transpositionTable);
+            //The odd helpers run a ply ahead, and from helper 2 on each pair takes the root moves rotated one place further.
+            final int depthOffset = i % 2;
+            final int rootRotation = i / 2;
+            helpers.add(helper);
+            helperResults.add(this.executor.submit(new Callable<Move>() {
+                @Override
+                public Move call() {
+                    return helper.search(board, depth, depthOffset, rootRotation);
+                }
+            }));
+        }
+        final Move bestMove;
+        try {
+            bestMove = mainSearch.search(board, depth, 0, 0);
+        } finally {
+            for (final AlphaBetaWithMoveOrdering helper : helpers) {
+                helper.stop();
+            }
+        }
+        long boardsEvaluated = mainSearch.getNumBoardsEvaluated();
+        for (int i = 0; i < helpers.size(); i++) {
+            try {
+                helperResults.get(i).get();
+            } catch (final Exception e) {
+                throw new RuntimeException("Helper search failed!", e);
+            }
+            boardsEvaluated += helpers.get(i).getNumBoardsEvaluated();
+        }
+        this.boardsEvaluated = boardsEvaluated;
+        return bestMove;
+    }
+
+    //The helpers run on daemon threads, so a search that is still winding down never keeps the program from exiting.
+    private static final class HelperThreadFactory
+            implements ThreadFactory {
+
+        private int threadNumber;
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "lazy-smp-helper-" + (++this.threadNumber));
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    /*Prints the time it takes to search the benchmark boards (see SearchBenchmark) to the given depth (5 by default) with 1,
+    2, 4, ... threads up to the number of cores. The time limit is turned off, so every search reaches the depth.*/
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final List<Board> boards = SearchBenchmark.createBoards();
+        SearchBenchmark.Result singleThread = null;
+        for (final int threads : SearchBenchmark.threadCounts()) {
+            final LazySmpSearch search = new LazySmpSearch(Long.MAX_VALUE, threads);
+            final SearchBenchmark.Result result =
+                    SearchBenchmark.run(search, search.getTranspositionTable(), boards, depth);
+            search.shutdown();
+            if (singleThread == null) {
+                singleThread = result;
+            }
+            System.out.println(result.describe(threads, depth, singleThread));
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+//A way for the AI to pick a move for the player to move on the board, searching at most the given number of plies ahead.
+public interface MoveStrategy {
+
+    Move execute(Board board, int depth);
+
+    long getNumBoardsEvaluated();
+
+}
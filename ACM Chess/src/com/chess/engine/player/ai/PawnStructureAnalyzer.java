@@ -1,22 +1,13 @@
 package com.chess.engine.player.ai;
 
-import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collection;
-import java.util.List;
-
 import com.chess.engine.board.BoardUtils;
-import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.chess.engine.player.Player;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
-import com.google.common.collect.ListMultimap;
 
 public final class PawnStructureAnalyzer {
 
     private static final PawnStructureAnalyzer INSTANCE = new PawnStructureAnalyzer();
-    private static final List<List<Boolean>> BOARD_COLUMNS = initColumns();
+    private static final long[] BOARD_COLUMNS = BoardUtils.COLUMN_MASKS;
 
     public static final int ISOLATED_PAWN_PENALTY = -10;
     public static final int DOUBLED_PAWN_PENALTY = -10;
@@ -28,93 +19,50 @@ public final class PawnStructureAnalyzer {
         return INSTANCE;
     }
 
-    private static List<List<Boolean>> initColumns() {
-        final List<List<Boolean>> columns = new ArrayList<>();
-        columns.add(BoardUtils.INSTANCE.FIRST_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SECOND_COLUMN);
-        columns.add(BoardUtils.INSTANCE.THIRD_COLUMN);
-        columns.add(BoardUtils.INSTANCE.FOURTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.FIFTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SIXTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.SEVENTH_COLUMN);
-        columns.add(BoardUtils.INSTANCE.EIGHTH_COLUMN);
-        return ImmutableList.copyOf(columns);
-    }
-
     public int isolatedPawnPenalty(final Player player) {
-        return calculateIsolatedPawnPenalty(createPawnsOnColumnTable(calculatePlayerPawns(player)));
+        return calculateIsolatedPawnPenalty(calculatePlayerPawns(player));
     }
 
     public int doubledPawnPenalty(final Player player) {
-        return calculateDoubledPawnPenalty(createPawnsOnColumnTable(calculatePlayerPawns(player)));
+        return calculateDoubledPawnPenalty(calculatePlayerPawns(player));
     }
 
     public int pawnStructureScore(final Player player) {
-        final Collection<Piece> playerPawns = calculatePlayerPawns(player);
-        final ListMultimap<Integer, Piece> pawnsOnColumnTable = createPawnsOnColumnTable(playerPawns);
+        final long playerPawns = calculatePlayerPawns(player);
         //final int overlyAdvanced = calculateOverlyAdvancedPawnsPenalty(playerPawns);
-        return /* calculateDoubledPawnPenalty(pawnsOnColumnTable) + */ calculateIsolatedPawnPenalty(pawnsOnColumnTable);
+        return /* calculateDoubledPawnPenalty(playerPawns) + */ calculateIsolatedPawnPenalty(playerPawns);
     }
 
-    private static Collection<Piece> calculatePlayerPawns(final Player player) {
-        final Builder<Piece> playerPawnLocations = new Builder<>();
-        for(final Piece piece : player.getActivePieces()) {
-            if(piece.getPieceType().isPawn()) {
-                playerPawnLocations.add(piece);
-            }
-        }
-        return playerPawnLocations.build();
+    private static long calculatePlayerPawns(final Player player) {
+        return player.getBoard().getPosition().getPieces(player.getAlliance(), PieceType.PAWN);
     }
 
-    private static int calculateDoubledPawnPenalty(final ListMultimap<Integer, Piece> pawnsOnColumnTable) {
+    private static int calculateDoubledPawnPenalty(final long playerPawns) {
         int numDoubledPawns = 0;
-        for(int i = 0; i < BOARD_COLUMNS.size(); i++) {
-            final int numPawnsOnColumn = pawnsOnColumnTable.get(i).size();
+        for(int i = 0; i < BOARD_COLUMNS.length; i++) {
+            final int numPawnsOnColumn = Long.bitCount(playerPawns & BOARD_COLUMNS[i]);
             if(numPawnsOnColumn > 1) {
-                numDoubledPawns += pawnsOnColumnTable.get(i).size();
+                numDoubledPawns += numPawnsOnColumn;
             }
         }
         return numDoubledPawns * DOUBLED_PAWN_PENALTY;
     }
 
-    private static int calculateIsolatedPawnPenalty(final ListMultimap<Integer, Piece> pawnsOnColumnTable) {
+    //A pawn is isolated when there are no friendly pawns on either of the neighbouring columns.
+    private static int calculateIsolatedPawnPenalty(final long playerPawns) {
         int numIsolatedPawns = 0;
-        if(!pawnsOnColumnTable.get(0).isEmpty() &&
-            pawnsOnColumnTable.get(1).isEmpty()) {
-            numIsolatedPawns += pawnsOnColumnTable.get(0).size();
-        }
-        for(int i = 1; i < BOARD_COLUMNS.size() - 1; i++) {
-            if(!pawnsOnColumnTable.get(i).isEmpty() &&
-               (pawnsOnColumnTable.get(i-1).isEmpty() && pawnsOnColumnTable.get(i+1).isEmpty())) {
-                numIsolatedPawns += pawnsOnColumnTable.get(i).size();
+        for(int i = 0; i < BOARD_COLUMNS.length; i++) {
+            final long pawnsOnColumn = playerPawns & BOARD_COLUMNS[i];
+            if(pawnsOnColumn == 0) {
+                continue;
             }
-        }
-        if(!pawnsOnColumnTable.get(BOARD_COLUMNS.size() - 1).isEmpty() &&
-            pawnsOnColumnTable.get(BOARD_COLUMNS.size() - 2).isEmpty()) {
-            numIsolatedPawns += pawnsOnColumnTable.get(BOARD_COLUMNS.size() - 1).size();
-        }
-        return numIsolatedPawns * ISOLATED_PAWN_PENALTY;
-    }
-
-    private static ListMultimap<Integer, Piece> createPawnsOnColumnTable(final Collection<Piece> playerPawns) {
-        final ListMultimap<Integer, Piece> table = ArrayListMultimap.create(8, 6);
-        for(int i = 0; i < BOARD_COLUMNS.size(); i++) {
-            for(final Piece playerPawn : playerPawns) {
-                if(BOARD_COLUMNS.get(i).get(playerPawn.getPiecePosition())) {
-                    table.put(i, playerPawn);
-                }
+            final long neighbourColumns = (i > 0 ? BOARD_COLUMNS[i - 1] : 0L) |
+                                          (i < BOARD_COLUMNS.length - 1 ? BOARD_COLUMNS[i + 1] : 0L);
+            if((playerPawns & neighbourColumns) == 0) {
+                numIsolatedPawns += Long.bitCount(pawnsOnColumn);
             }
         }
-        return table;
-    }
-
-    private static BitSet createPawnBitSet(final Collection<Piece> playerPawns) {
-        final BitSet result = new BitSet(64);
-        for(final Piece piece : playerPawns) {
-            result.set(piece.getPiecePosition());
-        }
-
-        return result;
+        return numIsolatedPawns * ISOLATED_PAWN_PENALTY;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package com.chess.engine.player.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+
+/*This is the SearchBenchmark class. The parallel searches (LazySmpSearch, YoungBrothersWaitSearch) run it from their main methods
+to time the same boards with one thread and with more.
+
+The first searches a JVM runs are slow because the JIT hasn't compiled the search yet, so timing them would mostly measure the
+warm-up (and make whichever thread count is timed first look slow). So every strategy searches the boards a few times untimed
+first, and then the timed runs are repeated and the median is taken, which also smooths out the odd slow run.*/
+final class SearchBenchmark {
+
+    private static final int WARM_UP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+
+    //The benchmark boards, as the moves (from and to tile) that lead to them from the standard board.
+    private static final String[][] OPENINGS = {
+            {},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4"},
+            {"d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6"},
+            {"e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4"}
+    };
+
+    private SearchBenchmark() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    static List<Board> createBoards() {
+        final List<Board> boards = new ArrayList<>();
+        for (final String[] opening : OPENINGS) {
+            Board board = Board.createStandardBoard();
+            for (final String move : opening) {
+                board = board.currentPlayer().getLegalMove(
+                        BoardUtils.INSTANCE.getCoordinateAtPosition(move.substring(0, 2)),
+                        BoardUtils.INSTANCE.getCoordinateAtPosition(move.substring(2))).execute();
+            }
+            boards.add(board);
+        }
+        return boards;
+    }
+
+    /*Searches every board to the depth with the strategy, WARM_UP_RUNS times untimed and then TIMED_RUNS times timed. If the
+    strategy has a transposition table it is cleared before every search (outside the clock), so no search starts with what
+    the one before it found.*/
+    static Result run(final MoveStrategy strategy,
+                      final TranspositionTable transpositionTable,
+                      final List<Board> boards,
+                      final int depth) {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            searchAll(strategy, transpositionTable, boards, depth, new ArrayList<Move>());
+        }
+        final long[] runMillis = new long[TIMED_RUNS];
+        final List<Move> moves = new ArrayList<>();
+        long boardsEvaluated = 0;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            moves.clear();
+            final long[] result = searchAll(strategy, transpositionTable, boards, depth, moves);
+            runMillis[i] = result[0];
+            boardsEvaluated = result[1];
+        }
+        Arrays.sort(runMillis);
+        return new Result(runMillis[TIMED_RUNS / 2], runMillis[0], boardsEvaluated, moves);
+    }
+
+    //The time in milliseconds and the boards evaluated, for one search of every board.
+    private static long[] searchAll(final MoveStrategy strategy,
+                                    final TranspositionTable transpositionTable,
+                                    final List<Board> boards,
+                                    final int depth,
+                                    final List<Move> moves) {
+        long elapsedNanos = 0;
+        long boardsEvaluated = 0;
+        for (final Board board : boards) {
+            if (transpositionTable != null) {
+                transpositionTable.clear();
+            }
+            final long start = System.nanoTime();
+            moves.add(strategy.execute(board, depth));
+            elapsedNanos += System.nanoTime() - start;
+            boardsEvaluated += strategy.getNumBoardsEvaluated();
+        }
+        return new long[] {elapsedNanos / 1000000, boardsEvaluated};
+    }
+
+    //1, 2, 4, ... threads up to the number of cores, and the number of cores itself.
+    static List<Integer> threadCounts() {
+        final int maxThreads = Runtime.getRuntime().availableProcessors();
+        final List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        return threadCounts;
+    }
+
+    static final class Result {
+
+        private final long medianMillis;
+        private final long bestMillis;
+        private final long boardsEvaluated;
+        private final List<Move> moves;
+
+        private Result(final long medianMillis,
+                       final long bestMillis,
+                       final long boardsEvaluated,
+                       final List<Move> moves) {
+            this.medianMillis = medianMillis;
+            this.bestMillis = bestMillis;
+            this.boardsEvaluated = boardsEvaluated;
+            this.moves = moves;
+        }
+
+        long getMedianMillis() {
+            return this.medianMillis;
+        }
+
+        //The moves found in the last timed run, one per board.
+        List<Move> getMoves() {
+            return this.moves;
+        }
+
+        //How the run compares to the single thread run: its times, the boards it evaluated and the speedup of the median.
+        String describe(final int threads,
+                        final int depth,
+                        final Result singleThread) {
+            return String.format("%2d threads: depth %d in %d ms median, %d ms best, %d boards (%.2fx)", threads, depth,
+                    this.medianMillis, this.bestMillis, this.boardsEvaluated,
+                    (double) singleThread.medianMillis / Math.max(this.medianMillis, 1));
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.Player;
+
+/*This is the StandardBoardEvaluator class. It scores a board as white's score minus black's score, where the score of a player
+adds up its material (with the location bonus of every piece), its mobility, its threats against the enemy king, whether it has
+castled, its pawn and rook structure (see PawnStructureAnalyzer and RookStructureAnalyzer) and how far the closest enemy attack
+lands from its king (see KingSafetyAnalyzer).*/
+public final class StandardBoardEvaluator
+        implements BoardEvaluator {
+
+    private static final int CHECK_MATE_BONUS = 10000;
+    private static final int CHECK_BONUS = 45;
+    private static final int CASTLE_BONUS = 25;
+    private static final int MOBILITY_MULTIPLIER = 5;
+    private static final int ATTACK_MULTIPLIER = 1;
+    private static final int TWO_BISHOPS_BONUS = 25;
+    private static final int DEPTH_BONUS = 100;
+
+    @Override
+    public int evaluate(final Board board,
+                        final int depth) {
+        return score(board, board.whitePlayer(), depth) - score(board, board.blackPlayer(), depth);
+    }
+
+    private static int score(final Board board,
+                             final Player player,
+                             final int depth) {
+        return pieceEvaluations(player) +
+               mobility(player) +
+               kingThreats(player, depth) +
+               attacks(player) +
+               castle(player) +
+               PawnStructureAnalyzer.get().pawnStructureScore(player) +
+               RookStructureAnalyzer.get().rookStructureScore(board, player) +
+               kingSafety(player);
+    }
+
+    //The value of every piece plus the bonus for the tile it stands on. The bishop pair is worth a little more than two bishops.
+    private static int pieceEvaluations(final Player player) {
+        int pieceValuationScore = 0;
+        int numBishops = 0;
+        for (final Piece piece : player.getActivePieces()) {
+            pieceValuationScore += piece.getPieceValue() + piece.locationBonus();
+            if (piece.getPieceType() == Piece.PieceType.BISHOP) {
+                numBishops++;
+            }
+        }
+        return pieceValuationScore + (numBishops == 2 ? TWO_BISHOPS_BONUS : 0);
+    }
+
+    private static int mobility(final Player player) {
+        return MOBILITY_MULTIPLIER * player.getLegalMoves().size();
+    }
+
+    //Checkmating the opponent is worth the most, and more the sooner it happens.
+    private static int kingThreats(final Player player,
+                                   final int depth) {
+        if (player.getOpponent().isInCheckMate()) {
+            return CHECK_MATE_BONUS * depthBonus(depth);
+        }
+        return player.getOpponent().isInCheck() ? CHECK_BONUS : 0;
+    }
+
+    private static int depthBonus(final int depth) {
+        return depth == 0 ? 1 : DEPTH_BONUS * depth;
+    }
+
+    //Attacks on enemy pieces that are worth at least as much as the attacking piece.
+    private static int attacks(final Player player) {
+        int attackScore = 0;
+        for (final Move move : player.getLegalMoves()) {
+            if (move.isAttack() && move.getMovedPiece().getPieceValue() <= move.getAttackedPiece().getPieceValue()) {
+                attackScore++;
+            }
+        }
+        return attackScore * ATTACK_MULTIPLIER;
+    }
+
+    private static int castle(final Player player) {
+        return player.isCastled() ? CASTLE_BONUS : 0;
+    }
+
+    private static int kingSafety(final Player player) {
+        final KingSafetyAnalyzer.KingDistance kingDistance = KingSafetyAnalyzer.get().calculateKingTropism(player);
+        return kingDistance.getEnemyPiece() != null ? kingDistance.tropismScore() : 0;
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.chess.engine.player.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/*This is the TranspositionTable class. The same board is reached again and again in a search through different move orders
+(e4 e5 Nf3 and Nf3 e5 e4), so the search remembers what it found out about every board it searched: how deep it searched it,
+the score, whether the score is exact or only a bound, and the best move. Next time the board comes up, the score can often be
+used straight away, and otherwise the best move is searched first.
+
+Boards are found by their Zobrist key, in a table of fixed size. Every entry is two longs: the data, packed as below, and the
+key xor'ed with the data. Reading an entry checks that the key comes back out; if two threads wrote the same entry at the same
+time the halves don't match and the entry reads as empty. So several searches can share one table without any locks, and a
+torn entry can never hand out the data of another board.
+
+Data layout (low bits first): 32 bits score, 6 bits from tile and 6 bits to tile of the best move, 8 bits depth, 2 bits bound,
+8 bits age. A stored move always has different from and to tiles, so from == to means there is none. The bound is never 0, so
+an entry that was never written (0, 0) reads as empty.
+
+When two boards want the same entry the deeper search is kept, unless the entry is left over from an older search (its age is
+not the current one), which is always replaced.*/
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    //What probe returns when the table doesn't know the board.
+    public static final long NO_ENTRY = 0L;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private static final int SCORE_BITS = 32;
+    private static final int SQUARE_BITS = 6;
+    private static final int FROM_SHIFT = SCORE_BITS;
+    private static final int TO_SHIFT = FROM_SHIFT + SQUARE_BITS;
+    private static final int DEPTH_SHIFT = TO_SHIFT + SQUARE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+    private static final int AGE_SHIFT = BOUND_SHIFT + 2;
+    private static final long SQUARE_MASK = (1L << SQUARE_BITS) - 1;
+    private static final long DEPTH_MASK = 0xFF;
+    private static final long BOUND_MASK = 0x3;
+    private static final long AGE_MASK = 0xFF;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int mask;
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    //A table taking about the given number of megabytes, rounded down to a power of two number of entries.
+    public TranspositionTable(final int sizeInMegabytes) {
+        final long entries = Math.max(1L, ((long) sizeInMegabytes << 20) / ENTRY_BYTES);
+        final int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        this.checks = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    //Call at the start of every search, so the entries of earlier searches give way to new ones.
+    public void newSearch() {
+        this.age = (this.age + 1) & (int) AGE_MASK;
+    }
+
+    //The data stored for the board with this key, or NO_ENTRY.
+    public long probe(final long key) {
+        final int index = index(key);
+        final long entry = this.data[index];
+        final long check = this.checks[index];
+        if ((check ^ entry) == key && entry != NO_ENTRY) {
+            this.hits.increment();
+            return entry;
+        }
+        if (entry == NO_ENTRY && check == 0) {
+            this.misses.increment();
+        } else {
+            this.collisions.increment();
+        }
+        return NO_ENTRY;
+    }
+
+    //Stores what a search found out about a board. bestMove may be null or the null move if the search has no best move.
+    public void store(final long key,
+                      final int depth,
+                      final int bound,
+                      final int score,
+                      final Move bestMove) {
+        final int index = index(key);
+        final long oldEntry = this.data[index];
+        final boolean sameBoard = (this.checks[index] ^ oldEntry) == key;
+        if (oldEntry != NO_ENTRY && !sameBoard && getAge(oldEntry) == this.age && getDepth(oldEntry) > depth) {
+            return;
+        }
+        final boolean hasMove = bestMove != null && bestMove != Move.NULL_MOVE;
+        long entry = score & 0xFFFFFFFFL;
+        if (hasMove) {
+            entry |= ((long) bestMove.getCurrentCoordinate() << FROM_SHIFT) |
+                     ((long) bestMove.getDestinationCoordinate() << TO_SHIFT);
+        } else if (sameBoard) {
+            //Keep the move we already had for this board.
+            entry |= oldEntry & (((SQUARE_MASK << SQUARE_BITS) | SQUARE_MASK) << FROM_SHIFT);
+        }
+        entry |= ((long) Math.min(Math.max(depth, 0), (int) DEPTH_MASK) << DEPTH_SHIFT) |
+                 ((long) bound << BOUND_SHIFT) |
+                 ((long) this.age << AGE_SHIFT);
+        this.data[index] = entry;
+        this.checks[index] = key ^ entry;
+    }
+
+    public static int getScore(final long entry) {
+        return (int) entry;
+    }
+
+    public static int getDepth(final long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static int getBound(final long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    private static int getAge(final long entry) {
+        return (int) ((entry >>> AGE_SHIFT) & AGE_MASK);
+    }
+
+    //The best move of the entry as a legal move on the board, or null if there is none (or it isn't legal there).
+    public static Move getBestMove(final long entry,
+                                   final Board board) {
+        final int from = (int) ((entry >>> FROM_SHIFT) & SQUARE_MASK);
+        final int to = (int) ((entry >>> TO_SHIFT) & SQUARE_MASK);
+        if (from == to) {
+            return null;
+        }
+        final Move move = board.currentPlayer().getLegalMove(from, to);
+        return move != Move.NULL_MOVE ? move : null;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.data.length; i++) {
+            this.data[i] = 0L;
+            this.checks[i] = 0L;
+        }
+        resetCounters();
+    }
+
+    public void resetCounters() {
+        this.hits.reset();
+        this.misses.reset();
+        this.collisions.reset();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    //Probes that found the entry empty.
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    //Probes that found the entry holding another board (or torn by two writers).
+    public long getCollisions() {
+        return this.collisions.sum();
+    }
+
+    public int size() {
+        return this.data.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("tt %d entries, %d hits, %d misses, %d collisions", size(), getHits(), getMisses(),
+                getCollisions());
+    }
+
+    private int index(final long key) {
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.chess.engine.player.ai;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Observable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.Player;
+
+/*This is the YoungBrothersWaitSearch class. Unlike LazySmpSearch, where every thread searches the whole tree and the threads only
+share a table, this one splits the tree itself between the threads of a ForkJoinPool, the "Young Brothers Wait" way.
+
+At every node the first move (the eldest brother) is searched alone first. Most of the time it is the best move, or good enough
+for a cutoff, and then the other moves would have been wasted work. Only when it doesn't cut off are the rest of the moves (the
+young brothers) handed to the pool as tasks, all of them searched with the alpha the eldest brother gave. As their scores come
+in the best one is kept, and as soon as one of them causes a cutoff the brothers that haven't started yet are cancelled and the
+ones that are running stop at their next node (every node checks whether a node above it was cut off). Near the leaves a node
+is searched by the thread that got it, since a task there costs more than the work in it. That serial search is the one of
+AlphaBetaWithMoveOrdering (see NodeSearch), one per thread.
+
+Boards are immutable, so every task plays its moves on the boards it was given without copying anything. Nothing else is shared
+between the tasks either, no killer moves and no transposition table, so the moves and scores the search finds don't depend on
+how the threads happen to run; only the number of boards it evaluates does. The price is that it searches more boards than
+AlphaBetaWithMoveOrdering, so it has no time limit and always searches to the depth it is given (deepening one ply at a time so
+every iteration searches the best move of the last one first).
+
+The pool is kept from one search to the next, so call shutdown() when done with the search.
+
+Run it as a program to see how much faster the benchmark boards (see SearchBenchmark) are searched with more threads.*/
+public final class YoungBrothersWaitSearch
+        extends Observable
+        implements MoveStrategy {
+
+    //Nodes this close to the leaves are searched without splitting them.
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    private static final int INFINITY = AlphaBetaWithMoveOrdering.INFINITY;
+    private static final int MATE_SCORE = AlphaBetaWithMoveOrdering.MATE_SCORE;
+    private static final int MAX_PLY = AlphaBetaWithMoveOrdering.MAX_PLY;
+    private static final int DRAW_SCORE = AlphaBetaWithMoveOrdering.DRAW_SCORE;
+
+    private final ForkJoinPool pool;
+    private final int numThreads;
+    private final LongAdder boardsEvaluated;
+    private final ThreadLocal<NodeSearch> nodeSearches;
+
+    public YoungBrothersWaitSearch(final int numThreads) {
+        this.numThreads = Math.max(numThreads, 1);
+        this.pool = new ForkJoinPool(this.numThreads);
+        this.boardsEvaluated = new LongAdder();
+        this.nodeSearches = new ThreadLocal<NodeSearch>() {
+            @Override
+            protected NodeSearch initialValue() {
+                return new NodeSearch();
+            }
+        };
+    }
+
+    //Lets the threads of the pool go. The search can't be used after this.
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "YoungBrothersWaitSearch(" + this.numThreads + " threads)";
+    }
+
+    @Override
+    public long getNumBoardsEvaluated() {
+        return this.boardsEvaluated.sum();
+    }
+
+    @Override
+    public Move execute(final Board board,
+                        final int depth) {
+        final long startTime = System.currentTimeMillis();
+        this.boardsEvaluated.reset();
+        if (board.currentPlayer().getLegalMoves().isEmpty()) {
+            return Move.NULL_MOVE;
+        }
+        Move bestMove = null;
+        for (int currentDepth = 1; currentDepth <= Math.max(depth, 1); currentDepth++) {
+            final Node root = new Node(board, null, currentDepth, 0, -INFINITY, INFINITY, null, bestMove);
+            final int bestScore = this.pool.invoke(root);
+            bestMove = root.bestMove;
+            notifyProgress(currentDepth, bestMove, bestScore, System.currentTimeMillis() - startTime);
+            if (Math.abs(bestScore) >= MATE_SCORE - MAX_PLY) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    private void notifyProgress(final int depth,
+                                final Move bestMove,
+                                final int bestScore,
+                                final long elapsedMillis) {
+        final String progress = String.format("%s depth %d: %s (score %d), %d boards in %d ms, %d steals",
+                this, depth, bestMove, bestScore, getNumBoardsEvaluated(), elapsedMillis, this.pool.getStealCount());
+        setChanged();
+        notifyObservers(progress);
+    }
+
+    /*One node of the tree as a task. Its board is the board of the parent node with the move played, which the task plays
+    itself, so the parent can hand out all the young brothers without waiting for their boards. The root gets its board.*/
+    private final class Node
+            extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board parentBoard;
+        private final Move move;
+        private final int depth;
+        private final int ply;
+        private final int alpha;
+        private final int beta;
+        private final Node parent;
+        private final Move firstMove;
+        //Set when a young brother caused a cutoff, so everything still searching below this node can stop.
+        private volatile boolean cutoff;
+        private Move bestMove;
+
+        private Node(final Board parentBoard,
+                     final Move move,
+                     final int depth,
+                     final int ply,
+                     final int alpha,
+                     final int beta,
+                     final Node parent,
+                     final Move firstMove) {
+            this.parentBoard = parentBoard;
+            this.move = move;
+            this.depth = depth;
+            this.ply = ply;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.parent = parent;
+            this.firstMove = firstMove;
+        }
+
+        //Whether a node above this one was cut off, so whatever this node finds will be thrown away.
+        private boolean isAborted() {
+            for (Node node = this.parent; node != null; node = node.parent) {
+                if (node.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (isAborted()) {
+                return DRAW_SCORE;
+            }
+            final Board board = this.move != null ? this.move.execute() : this.parentBoard;
+            if (this.ply > 0 && isDraw(board)) {
+                return DRAW_SCORE;
+            }
+            //The root is always split, so it finds out which of its moves is best.
+            final NodeSearch nodeSearch = YoungBrothersWaitSearch.this.nodeSearches.get();
+            if (this.ply > 0 && (this.depth < MIN_SPLIT_DEPTH || this.ply >= MAX_PLY - 1)) {
+                return nodeSearch.search(this, board);
+            }
+            final Player currentPlayer = board.currentPlayer();
+            final Collection<Move> legalMoves = currentPlayer.getLegalMoves();
+            if (legalMoves.isEmpty()) {
+                return currentPlayer.isInCheck() ? -MATE_SCORE + this.ply : DRAW_SCORE;
+            }
+            final List<Move> moves = nodeSearch.sortMoves(legalMoves, this.firstMove, -1);
+            //The eldest brother first, on this thread.
+            int bestScore = -new Node(board, moves.get(0), this.depth - 1, this.ply + 1, -this.beta, -this.alpha, this,
+                    null).compute();
+            this.bestMove = moves.get(0);
+            if (bestScore >= this.beta || moves.size() == 1 || isAborted()) {
+                return bestScore;
+            }
+            //Then the young brothers, all at once. Forking the last one first leaves the better ones at the front of the
+            //queue of this thread, where it picks them up first while the other threads steal from the back.
+            int currentAlpha = Math.max(this.alpha, bestScore);
+            final List<Node> youngBrothers = new ArrayList<>(moves.size() - 1);
+            for (int i = 1; i < moves.size(); i++) {
+                youngBrothers.add(new Node(board, moves.get(i), this.depth - 1, this.ply + 1, -this.beta, -currentAlpha,
+                        this, null));
+            }
+            for (int i = youngBrothers.size() - 1; i >= 0; i--) {
+                youngBrothers.get(i).fork();
+            }
+            for (final Node youngBrother : youngBrothers) {
+                if (this.cutoff) {
+                    //A brother that has started finishes quickly now, but it is still waited for so no task outlives the search.
+                    if (!youngBrother.cancel(false)) {
+                        youngBrother.quietlyJoin();
+                    }
+                    continue;
+                }
+                final int score = -youngBrother.join();
+                if (score > bestScore) {
+                    bestScore = score;
+                    this.bestMove = youngBrother.move;
+                    if (score > currentAlpha) {
+                        currentAlpha = score;
+                        if (currentAlpha >= this.beta) {
+                            this.cutoff = true;
+                        }
+                    }
+                }
+            }
+            return bestScore;
+        }
+
+    }
+
+    /*The serial search of a node. It is aborted as soon as a node above the one it searches was cut off. The boards it
+    evaluates are added to the count of the whole search.*/
+    private final class NodeSearch
+            extends AlphaBetaWithMoveOrdering {
+
+        private Node owner;
+
+        private int search(final Node node,
+                           final Board board) {
+            this.owner = node;
+            final long boardsEvaluatedBefore = getNumBoardsEvaluated();
+            final int score = searchNode(board, node.depth, node.ply, node.alpha, node.beta);
+            YoungBrothersWaitSearch.this.boardsEvaluated.add(getNumBoardsEvaluated() - boardsEvaluatedBefore);
+            return score;
+        }
+
+        @Override
+        boolean isAborted() {
+            return super.isAborted() || this.owner.isAborted();
+        }
+
+    }
+
+    private static boolean isDraw(final Board board) {
+        return board.isRepetition() || board.isDrawByFiftyMoveRule() || board.isDrawByInsufficientMaterial();
+    }
+
+    /*Prints the time it takes to search the benchmark boards (see SearchBenchmark) to the given depth (4 by default) with 1, 2,
+    4, ... threads up to the number of cores, how much faster that is than one thread, and whether the same moves were found.*/
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        final List<Board> boards = SearchBenchmark.createBoards();
+        SearchBenchmark.Result singleThread = null;
+        for (final int threads : SearchBenchmark.threadCounts()) {
+            final YoungBrothersWaitSearch search = new YoungBrothersWaitSearch(threads);
+            final SearchBenchmark.Result result = SearchBenchmark.run(search, null, boards, depth);
+            search.shutdown();
+            if (singleThread == null) {
+                singleThread = result;
+            }
+            System.out.println(result.describe(threads, depth, singleThread) +
+                    (result.getMoves().equals(singleThread.getMoves()) ? "" : ", different moves " + result.getMoves()));
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ class GameHistoryPanel extends JPanel {
               final MoveLog moveHistory) {
         int currentRow = 0;
         this.model.clear();
+        //A move keeps its SAN (check and mate signs included) once it's written, so redrawing the list doesn't write it again.
         for (final Move move : moveHistory.getMoves()) {
             final String moveText = move.toString();
             if (move.getMovedPiece().getPieceAllegiance().isWhite()) {
@@ -47,32 +48,11 @@ class GameHistoryPanel extends JPanel {
             }
         }
 
-        if(moveHistory.getMoves().size() > 0) {
-            final Move lastMove = moveHistory.getMoves().get(moveHistory.size() - 1);
-            final String moveText = lastMove.toString();
-
-            if (lastMove.getMovedPiece().getPieceAllegiance().isWhite()) {
-                this.model.setValueAt(moveText + calculateCheckAndCheckMateHash(board), currentRow, 0);
-            }
-            else if (lastMove.getMovedPiece().getPieceAllegiance().isBlack()) {
-                this.model.setValueAt(moveText + calculateCheckAndCheckMateHash(board), currentRow - 1, 1);
-            }
-        }
-
         final JScrollBar vertical = scrollPane.getVerticalScrollBar();
         vertical.setValue(vertical.getMaximum());
 
     }
 
-    private static String calculateCheckAndCheckMateHash(final Board board) {
-        if(board.currentPlayer().isInCheckMate()) {
-            return "#";
-        } else if(board.currentPlayer().isInCheck()) {
-            return "+";
-        }
-        return "";
-    }
-
     private static class Row {
 
         private String whiteMove;
@@ -30,6 +30,7 @@ import com.chess.pgn.FenUtillities;
 import com.chess.pgn.MySqlGamePersistence;
 import com.chess.engine.board.Move.MoveFactory;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.GameStatus;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.ai.*;
 import com.google.common.collect.Lists;
@@ -43,6 +44,8 @@ public final class Table extends Observable {
     private final BoardPanel boardPanel;
     private final MoveLog moveLog;
     private final GameSetup gameSetup;
+    private final AlphaBetaWithMoveOrdering moveStrategy;
+    private LazySmpSearch parallelMoveStrategy;
     private Board chessBoard;
     private Move computerMove;
     private Tile sourceTile;
@@ -79,6 +82,9 @@ public final class Table extends Observable {
         this.moveLog = new MoveLog();
         this.addObserver(new TableGameAIWatcher());
         this.gameSetup = new GameSetup(this.gameFrame, true);
+        //One search for the whole game, so its transposition table carries over from one move to the next.
+        this.moveStrategy = new AlphaBetaWithMoveOrdering(1500);
+        this.moveStrategy.addObserver(this.debugPanel);
         this.gameFrame.add(this.takenPiecesPanel, BorderLayout.WEST);
         this.gameFrame.add(this.boardPanel, BorderLayout.CENTER);
         this.gameFrame.add(this.gameHistoryPanel, BorderLayout.EAST);
@@ -126,6 +132,22 @@ public final class Table extends Observable {
         return this.gameSetup;
     }
 
+    private AlphaBetaWithMoveOrdering getMoveStrategy() {
+        return this.moveStrategy;
+    }
+
+    //The search for more than one thread, also kept for the whole game. It's only made again when the thread count changes.
+    private LazySmpSearch getParallelMoveStrategy(final int searchThreads) {
+        if (this.parallelMoveStrategy == null || this.parallelMoveStrategy.getNumThreads() != searchThreads) {
+            if (this.parallelMoveStrategy != null) {
+                this.parallelMoveStrategy.shutdown();
+            }
+            this.parallelMoveStrategy = new LazySmpSearch(1500, searchThreads);
+            this.parallelMoveStrategy.addObserver(this.debugPanel);
+        }
+        return this.parallelMoveStrategy;
+    }
+
     private boolean getHighlightLegalMoves() {
         return this.highlightLegalMoves;
     }
@@ -527,25 +549,43 @@ public final class Table extends Observable {
         public void update(final Observable o,
                            final Object arg) {
 
-            if (Table.get().getGameSetup().isAIPlayer(Table.get().getGameBoard().currentPlayer()) &&
-                !Table.get().getGameBoard().currentPlayer().isInCheckMate() &&
-                !Table.get().getGameBoard().currentPlayer().isInStaleMate()) {
-                System.out.println(Table.get().getGameBoard().currentPlayer() + " is set to AI, thinking....");
+            //The game status is worked out once per board, so asking the player for it is cheap after the first time.
+            final Player currentPlayer = Table.get().getGameBoard().currentPlayer();
+            final GameStatus gameStatus = currentPlayer.getGameStatus();
+
+            if (Table.get().getGameSetup().isAIPlayer(currentPlayer) && !gameStatus.isGameOver()) {
+                System.out.println(currentPlayer + " is set to AI, thinking....");
                 final AIThinkTank thinkTank = new AIThinkTank();
                 thinkTank.execute();
             }
 
-            if (Table.get().getGameBoard().currentPlayer().isInCheckMate() ||
-                Table.get().getGameBoard().currentPlayer().isInStaleMate()) {
+            if (gameStatus == GameStatus.CHECKMATE) {
+                JOptionPane.showMessageDialog(Table.get().getBoardPanel(),
+                        "Game Over: Player " + currentPlayer + " is in checkmate!", "Game Over",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            if (gameStatus == GameStatus.STALEMATE) {
                 JOptionPane.showMessageDialog(Table.get().getBoardPanel(),
-                        "Game Over: Player " + Table.get().getGameBoard().currentPlayer() + " is in checkmate!", "Game Over",
+                        "Game Over: Player " + currentPlayer + " is in stalemate!", "Game Over",
                         JOptionPane.INFORMATION_MESSAGE);
             }
 
-            if (Table.get().getGameBoard().currentPlayer().isInStaleMate() ||
-                Table.get().getGameBoard().currentPlayer().isInStaleMate()) {
+            if (gameStatus == GameStatus.DRAW_BY_REPETITION) {
                 JOptionPane.showMessageDialog(Table.get().getBoardPanel(),
-                        "Game Over: Player " + Table.get().getGameBoard().currentPlayer() + " is in stalemate!", "Game Over",
+                        "Game Over: Draw by threefold repetition!", "Game Over",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            if (gameStatus == GameStatus.DRAW_BY_FIFTY_MOVE_RULE) {
+                JOptionPane.showMessageDialog(Table.get().getBoardPanel(),
+                        "Game Over: Draw by the fifty-move rule!", "Game Over",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            if (gameStatus == GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL) {
+                JOptionPane.showMessageDialog(Table.get().getBoardPanel(),
+                        "Game Over: Draw by insufficient material!", "Game Over",
                         JOptionPane.INFORMATION_MESSAGE);
             }
 
@@ -577,11 +617,17 @@ public final class Table extends Observable {
             else {
                 final int moveNumber = Table.get().getMoveLog().size();
                 final int quiescenceFactor = 2000 + (100 * moveNumber);
-                final AlphaBetaWithMoveOrdering strategy = new AlphaBetaWithMoveOrdering(1500);
-                strategy.addObserver(Table.get().getDebugPanel());
-                //Table.get().getGameBoard().currentPlayer().setMoveStrategy(strategy);
-                bestMove = strategy.execute(
-                        Table.get().getGameBoard(), Table.get().getGameSetup().getSearchDepth());
+                final int searchThreads = Table.get().getGameSetup().getSearchThreads();
+                if (searchThreads > 1) {
+                    final LazySmpSearch strategy = Table.get().getParallelMoveStrategy(searchThreads);
+                    bestMove = strategy.execute(
+                            Table.get().getGameBoard(), Table.get().getGameSetup().getSearchDepth());
+                } else {
+                    final AlphaBetaWithMoveOrdering strategy = Table.get().getMoveStrategy();
+                    //Table.get().getGameBoard().currentPlayer().setMoveStrategy(strategy);
+                    bestMove = strategy.execute(
+                            Table.get().getGameBoard(), Table.get().getGameSetup().getSearchDepth());
+                }
             }
             return bestMove;
         }
@@ -861,17 +907,7 @@ public final class Table extends Observable {
         }
 
         private void assignTileColor() {
-            if (BoardUtils.INSTANCE.FIRST_ROW.get(this.tileId) ||
-                BoardUtils.INSTANCE.THIRD_ROW.get(this.tileId) ||
-                BoardUtils.INSTANCE.FIFTH_ROW.get(this.tileId) ||
-                BoardUtils.INSTANCE.SEVENTH_ROW.get(this.tileId)) {
-                setBackground(this.tileId % 2 == 0 ? lightTileColor : darkTileColor);
-            } else if(BoardUtils.INSTANCE.SECOND_ROW.get(this.tileId) ||
-                      BoardUtils.INSTANCE.FOURTH_ROW.get(this.tileId) ||
-                      BoardUtils.INSTANCE.SIXTH_ROW.get(this.tileId)  ||
-                      BoardUtils.INSTANCE.EIGHTH_ROW.get(this.tileId)) {
-                setBackground(this.tileId % 2 != 0 ? lightTileColor : darkTileColor);
-            }
+            setBackground(BoardUtils.isLightTile(this.tileId) ? lightTileColor : darkTileColor);
         }
     }
 }